@@ -0,0 +1,175 @@
+package com.avaliacao;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limitador de concorrência adaptativo no estilo AIMD (aumento aditivo, redução multiplicativa).
+ * A decisão é tomada a cada "janela" (um número de respostas igual ao limite atual):
+ * <ul>
+ *   <li>se a latência média suavizada da janela ficou até latencyTolerance vezes a menor latência
+ *       já observada, o limite cresce em 1;</li>
+ *   <li>se ficou acima, há fila se formando no servidor e o limite é reduzido levemente (fator 0,9).</li>
+ * </ul>
+ * Limitação de taxa (429/503) ou timeout reduz o limite pela metade imediatamente.
+ * O limite fica sempre entre minLimit e maxLimit, e pode ser lido a qualquer momento como métrica;
+ * cada ajuste também é publicado no WeatherMetrics (atributo ConcurrencyLimit do MXBean).
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double LATENCY_BACKOFF = 0.9;
+    private static final double DROP_BACKOFF = 0.5;
+    // Peso de cada nova amostra na média móvel exponencial da latência
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+
+    // Protegidos por lock
+    private double limit;
+    private int inFlight;
+    private long minLatencyNanos = Long.MAX_VALUE;
+    private double smoothedLatencyNanos;
+    private int samplesInWindow;
+    private int maxInFlightInWindow;
+
+    // Métricas
+    private volatile long successes;
+    private volatile long drops;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, 2.0);
+    }
+
+    /**
+     * @param latencyTolerance Quantas vezes a menor latência observada ainda é considerada normal.
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double latencyTolerance) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limites inválidos: mínimo " + minLimit + ", máximo " + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        WeatherMetrics.get().concurrencyLimitChanged((int) limit);
+    }
+
+    /**
+     * Bloqueia até haver uma vaga dentro do limite atual.
+     */
+    public void acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                permitReleased.await();
+            }
+            inFlight++;
+            maxInFlightInWindow = Math.max(maxInFlightInWindow, inFlight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Libera a vaga de uma requisição que terminou com sucesso e ajusta o limite pela latência.
+     */
+    public void onSuccess(long latencyNanos) {
+        lock.lock();
+        try {
+            inFlight--;
+            successes++;
+            minLatencyNanos = Math.min(minLatencyNanos, latencyNanos);
+            smoothedLatencyNanos = smoothedLatencyNanos == 0
+                    ? latencyNanos
+                    : smoothedLatencyNanos + SMOOTHING * (latencyNanos - smoothedLatencyNanos);
+
+            if (++samplesInWindow >= (int) limit) {
+                if (smoothedLatencyNanos > minLatencyNanos * latencyTolerance) {
+                    limit = Math.max(minLimit, limit * LATENCY_BACKOFF);
+                } else if (maxInFlightInWindow >= (int) limit) {
+                    // Só cresce quando o limite foi de fato usado durante a janela
+                    limit = Math.min(maxLimit, limit + 1);
+                }
+                samplesInWindow = 0;
+                maxInFlightInWindow = inFlight;
+                WeatherMetrics.get().concurrencyLimitChanged((int) limit);
+            }
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Libera a vaga de uma requisição que foi limitada pelo servidor (429/503) ou expirou.
+     */
+    public void onDropped() {
+        lock.lock();
+        try {
+            inFlight--;
+            drops++;
+            limit = Math.max(minLimit, limit * DROP_BACKOFF);
+            samplesInWindow = 0;
+            maxInFlightInWindow = inFlight;
+            WeatherMetrics.get().concurrencyLimitChanged((int) limit);
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Libera a vaga de uma requisição que falhou por outro motivo, sem alterar o limite.
+     */
+    public void onIgnored() {
+        lock.lock();
+        try {
+            inFlight--;
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return O limite atual de requisições simultâneas.
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSuccesses() { return successes; }
+    public long getDrops() { return drops; }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return String.format("Limite adaptativo: %d (sucessos: %d, descartes: %d, menor latência: %d ms)",
+                    (int) limit, successes, drops,
+                    minLatencyNanos == Long.MAX_VALUE ? 0 : TimeUnit.NANOSECONDS.toMillis(minLatencyNanos));
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.avaliacao;
+
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementação do experimento com concorrência adaptativa.
+ * Em vez de um número fixo de threads, cada capital recebe sua própria tarefa e a quantidade de
+ * requisições simultâneas é controlada por um AdaptiveConcurrencyLimiter, que se ajusta em tempo
+ * de execução pela latência observada e pelos sinais de limitação do servidor (429/503).
+ * Requisições limitadas pelo servidor são repetidas depois de uma pausa, até MAX_ATTEMPTS vezes.
+ */
+public class AdaptiveExperiment extends ExperimentRunner {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long THROTTLE_PAUSE_MILLIS = 200;
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public AdaptiveExperiment(List<CapitalsData.Capital> capitals, ResultStore resultStore, LocalDate startDate, LocalDate endDate) {
+        this(capitals, resultStore, startDate, endDate, new AdaptiveConcurrencyLimiter(4, 1, 64));
+    }
+
+    /**
+     * @param limiter O limitador a usar. Ele é mantido entre rodadas, para que o limite aprendido
+     *                em uma rodada seja o ponto de partida da seguinte.
+     */
+    public AdaptiveExperiment(List<CapitalsData.Capital> capitals, ResultStore resultStore, LocalDate startDate, LocalDate endDate,
+                              AdaptiveConcurrencyLimiter limiter) {
+        super(capitals, resultStore, startDate, endDate);
+        this.limiter = limiter;
+    }
+
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    @Override
+    public void runExperiment() throws InterruptedException {
+        // Uma tarefa por capital; quem limita a concorrência é o limiter, não o tamanho do pool
+        ExecutorService executor = VirtualThreadExperiment.newThreadPerTaskExecutor();
+        try {
+            List<Future<?>> futures = new ArrayList<>(capitals.size());
+            for (CapitalsData.Capital capital : capitals) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        fetchWithLimiter(capital);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (Exception e) {
+                        System.err.println("Erro ao processar capital: " + capital.getName() + ": " + e.getMessage());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // Já registrado dentro da tarefa
+                }
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private void fetchWithLimiter(CapitalsData.Capital capital) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            limiter.acquire();
+            long start = System.nanoTime();
+            try {
+                fetchDataAndProcess(capital);
+                limiter.onSuccess(System.nanoTime() - start);
+                return;
+            } catch (HttpStatusException e) {
+                if (!e.isThrottling()) {
+                    limiter.onIgnored();
+                    throw e;
+                }
+                limiter.onDropped();
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+            } catch (HttpTimeoutException | SocketTimeoutException e) {
+                limiter.onDropped();
+                throw e;
+            } catch (Exception e) {
+                limiter.onIgnored();
+                throw e;
+            }
+            // Pausa antes de repetir, crescendo a cada tentativa
+            Thread.sleep(THROTTLE_PAUSE_MILLIS * attempt);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.avaliacao;
+
+import java.util.Arrays;
+
+/**
+ * Núcleos de agregação sobre arrays primitivos de leituras horárias (24 por dia, nulos como NaN).
+ * São laços contados, sem boxing, streams ou alocação por dia, e os caminhos sem nulos
+ * não têm desvios no corpo do laço, o que permite ao JIT desenrolá-los.
+ *
+ * Quando a JVM é iniciada com --add-modules jdk.incubator.vector, as estatísticas dos dias
+ * completos e os graus-dia usam os núcleos SIMD de VectorKernels (Vector API); sem o módulo,
+ * ou com -Daggregation.simd=false, os laços escalares abaixo são usados. VectorKernels é
+ * carregada por reflexão, para que as demais classes não dependam do módulo incubado.
+ *
+ * Os resultados são escritos em arrays de saída fornecidos pelo chamador, indexados pelo dia.
+ */
+public final class AggregationKernels {
+
+    public static final int HOURS_PER_DAY = 24;
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    // Núcleos SIMD, ou null quando a Vector API não está disponível
+    private static final Simd SIMD = loadSimd();
+
+    /**
+     * Núcleos com implementação SIMD (VectorKernels).
+     */
+    interface Simd {
+        /**
+         * Estatísticas dos dias completos (24 leituras) do início da série.
+         * @return Quantidade de dias calculados; os demais ficam para o laço escalar.
+         */
+        int fullDayStats(double[] hourly, int size, boolean hasNulls,
+                         double[] min, double[] max, double[] mean, int[] count);
+
+        /**
+         * Soma de max(0, sign * (média - base)) dos dias não NaN: sign = -1 para aquecimento, 1 para resfriamento.
+         */
+        double degreeDays(double[] dailyMean, int days, double base, double sign);
+
+        String describe();
+    }
+
+    private AggregationKernels() {
+    }
+
+    private static Simd loadSimd() {
+        if ("false".equals(System.getProperty("aggregation.simd"))
+                || ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            return (Simd) Class.forName("com.avaliacao.VectorKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            System.err.println("Vector API indisponível, usando os núcleos escalares: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * @return true se os núcleos SIMD (Vector API) estão em uso.
+     */
+    public static boolean simdEnabled() {
+        return SIMD != null;
+    }
+
+    /**
+     * @return A implementação em uso, para relatórios (ex.: "Vector API (Species[double, 4, S_256_BIT])").
+     */
+    public static String implementation() {
+        return SIMD != null ? SIMD.describe() : "escalar";
+    }
+
+    /**
+     * @return Quantidade de dias (completos ou não) em uma série de size leituras horárias.
+     */
+    public static int daysFor(int size) {
+        return (size + HOURS_PER_DAY - 1) / HOURS_PER_DAY;
+    }
+
+    /**
+     * Mínima, máxima e média de cada dia, ignorando as leituras NaN.
+     * Dias sem nenhuma leitura válida ficam com NaN nas três saídas e 0 em count.
+     * @param hourly Leituras horárias.
+     * @param size Quantidade de leituras válidas em hourly.
+     * @param hasNulls false se a série não tem NaN (usa o laço sem testes).
+     */
+    public static void dailyStats(double[] hourly, int size, boolean hasNulls,
+                                  double[] min, double[] max, double[] mean, int[] count) {
+        int firstDay = SIMD != null ? SIMD.fullDayStats(hourly, size, hasNulls, min, max, mean, count) : 0;
+        scalarDailyStats(hourly, size, hasNulls, firstDay, min, max, mean, count);
+    }
+
+    /**
+     * Versão escalar de dailyStats, a partir do dia firstDay (os anteriores já foram calculados).
+     */
+    static void scalarDailyStats(double[] hourly, int size, boolean hasNulls, int firstDay,
+                                 double[] min, double[] max, double[] mean, int[] count) {
+        int days = daysFor(size);
+        for (int day = firstDay; day < days; day++) {
+            int start = day * HOURS_PER_DAY;
+            int end = Math.min(start + HOURS_PER_DAY, size);
+            if (!hasNulls && end - start == HOURS_PER_DAY) {
+                fullDayStats(hourly, start, day, min, max, mean, count);
+                continue;
+            }
+            if (!hasNulls) {
+                double dayMin = Double.POSITIVE_INFINITY;
+                double dayMax = Double.NEGATIVE_INFINITY;
+                double sum = 0.0;
+                for (int i = start; i < end; i++) {
+                    double value = hourly[i];
+                    dayMin = value < dayMin ? value : dayMin;
+                    dayMax = value > dayMax ? value : dayMax;
+                    sum += value;
+                }
+                min[day] = dayMin;
+                max[day] = dayMax;
+                mean[day] = sum / (end - start);
+                count[day] = end - start;
+                continue;
+            }
+
+            double dayMin = Double.POSITIVE_INFINITY;
+            double dayMax = Double.NEGATIVE_INFINITY;
+            double sum = 0.0;
+            int valid = 0;
+            for (int i = start; i < end; i++) {
+                double value = hourly[i];
+                // Seleções em vez de desvios. Comparações com NaN são sempre falsas,
+                // então NaN não altera mínimo e máximo sem teste extra (Math.min propagaria o NaN)
+                boolean present = value == value;
+                dayMin = value < dayMin ? value : dayMin;
+                dayMax = value > dayMax ? value : dayMax;
+                sum += present ? value : 0.0;
+                valid += present ? 1 : 0;
+            }
+            if (valid == 0) {
+                min[day] = Double.NaN;
+                max[day] = Double.NaN;
+                mean[day] = Double.NaN;
+            } else {
+                min[day] = dayMin;
+                max[day] = dayMax;
+                mean[day] = sum / valid;
+            }
+            count[day] = valid;
+        }
+    }
+
+    /**
+     * Dia completo sem nulos: quatro acumuladores independentes para mínimo, máximo e soma,
+     * quebrando a dependência entre iterações para que as comparações sigam em paralelo.
+     */
+    private static void fullDayStats(double[] hourly, int start, int day,
+                                     double[] min, double[] max, double[] mean, int[] count) {
+        double min0 = Double.POSITIVE_INFINITY, min1 = min0, min2 = min0, min3 = min0;
+        double max0 = Double.NEGATIVE_INFINITY, max1 = max0, max2 = max0, max3 = max0;
+        double sum0 = 0.0, sum1 = 0.0, sum2 = 0.0, sum3 = 0.0;
+        for (int i = start; i < start + HOURS_PER_DAY; i += 4) {
+            double v0 = hourly[i];
+            double v1 = hourly[i + 1];
+            double v2 = hourly[i + 2];
+            double v3 = hourly[i + 3];
+            min0 = Math.min(min0, v0);
+            min1 = Math.min(min1, v1);
+            min2 = Math.min(min2, v2);
+            min3 = Math.min(min3, v3);
+            max0 = Math.max(max0, v0);
+            max1 = Math.max(max1, v1);
+            max2 = Math.max(max2, v2);
+            max3 = Math.max(max3, v3);
+            sum0 += v0;
+            sum1 += v1;
+            sum2 += v2;
+            sum3 += v3;
+        }
+        min[day] = Math.min(Math.min(min0, min1), Math.min(min2, min3));
+        max[day] = Math.max(Math.max(max0, max1), Math.max(max2, max3));
+        mean[day] = ((sum0 + sum1) + (sum2 + sum3)) / HOURS_PER_DAY;
+        count[day] = HOURS_PER_DAY;
+    }
+
+    /**
+     * Média móvel de window dias (o dia atual e os window - 1 anteriores), mantida com soma deslizante.
+     * Dias NaN são ignorados dentro da janela; os primeiros window - 1 dias e janelas sem dados ficam NaN.
+     */
+    public static void rollingMean(double[] daily, int days, int window, double[] out) {
+        if (window < 1) {
+            throw new IllegalArgumentException("A janela deve ter ao menos um dia: " + window);
+        }
+        double sum = 0.0;
+        int valid = 0;
+        for (int day = 0; day < days; day++) {
+            double entering = daily[day];
+            if (entering == entering) {
+                sum += entering;
+                valid++;
+            }
+            if (day >= window) {
+                double leaving = daily[day - window];
+                if (leaving == leaving) {
+                    sum -= leaving;
+                    valid--;
+                }
+            }
+            out[day] = day < window - 1 || valid == 0 ? Double.NaN : sum / valid;
+        }
+    }
+
+    /**
+     * Graus-dia de aquecimento: soma de max(0, base - média diária), ignorando dias NaN.
+     */
+    public static double heatingDegreeDays(double[] dailyMean, int days, double base) {
+        if (SIMD != null) {
+            return SIMD.degreeDays(dailyMean, days, base, -1.0);
+        }
+        double total = 0.0;
+        for (int day = 0; day < days; day++) {
+            double mean = dailyMean[day];
+            total += mean == mean ? Math.max(0.0, base - mean) : 0.0;
+        }
+        return total;
+    }
+
+    /**
+     * Graus-dia de resfriamento: soma de max(0, média diária - base), ignorando dias NaN.
+     */
+    public static double coolingDegreeDays(double[] dailyMean, int days, double base) {
+        if (SIMD != null) {
+            return SIMD.degreeDays(dailyMean, days, base, 1.0);
+        }
+        double total = 0.0;
+        for (int day = 0; day < days; day++) {
+            double mean = dailyMean[day];
+            total += mean == mean ? Math.max(0.0, mean - base) : 0.0;
+        }
+        return total;
+    }
+
+    /**
+     * Percentil de cada dia (interpolação linear entre as leituras ordenadas), ignorando NaN.
+     * Cada dia é ordenado por inserção em um buffer de 24 posições, sem alocação.
+     * @param percentile Valor entre 0 e 100.
+     */
+    public static void dailyPercentile(double[] hourly, int size, double percentile, double[] out) {
+        double[] window = new double[HOURS_PER_DAY];
+        int days = daysFor(size);
+        for (int day = 0; day < days; day++) {
+            int start = day * HOURS_PER_DAY;
+            int end = Math.min(start + HOURS_PER_DAY, size);
+            int n = 0;
+            for (int i = start; i < end; i++) {
+                double value = hourly[i];
+                if (value != value) {
+                    continue;
+                }
+                int j = n++;
+                while (j > 0 && window[j - 1] > value) {
+                    window[j] = window[j - 1];
+                    j--;
+                }
+                window[j] = value;
+            }
+            out[day] = interpolate(window, n, percentile);
+        }
+    }
+
+    /**
+     * Percentil de todas as leituras válidas de uma série (por exemplo, o p95 de um ano), ignorando NaN.
+     */
+    public static double percentile(double[] values, int size, double percentile) {
+        double[] sorted = new double[size];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            double value = values[i];
+            if (value == value) {
+                sorted[n++] = value;
+            }
+        }
+        Arrays.sort(sorted, 0, n);
+        return interpolate(sorted, n, percentile);
+    }
+
+    private static double interpolate(double[] sorted, int n, double percentile) {
+        if (n == 0) {
+            return Double.NaN;
+        }
+        double rank = percentile / 100.0 * (n - 1);
+        int lower = (int) Math.floor(rank);
+        int upper = Math.min(lower + 1, n - 1);
+        double fraction = rank - lower;
+        return sorted[lower] + (sorted[upper] - sorted[lower]) * fraction;
+    }
+}
@@ -1,21 +1,49 @@
 package com.avaliacao;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Classe principal da aplicação.
- * Responsável por orquestrar e executar os quatro cenários de experimento
+ * Responsável por orquestrar e executar os cenários de experimento
  * para análise de performance de threads.
  */
 public class App {
 
     // Constante que define o número de repetições para cada cenário de teste
     private static final int NUM_REPETITIONS = 10;
+    // Rodadas de aquecimento executadas e descartadas antes das rodadas medidas
+    private static final int NUM_WARMUP_ROUNDS = 2;
+    // Arquivos onde os resultados são exportados para comparação entre versões
+    private static final Path RESULTS_CSV = Path.of("benchmark-results.csv");
+    private static final Path RESULTS_JSON = Path.of("benchmark-results.json");
+
+    private static final BenchmarkHarness HARNESS = new BenchmarkHarness(NUM_WARMUP_ROUNDS, NUM_REPETITIONS);
+    private static final List<BenchmarkResult> RESULTS = new ArrayList<>();
     // Constantes para o período de busca dos dados climáticos (Janeiro de 2024)
     private static final LocalDate START_DATE = LocalDate.of(2024, 1, 1);
     private static final LocalDate END_DATE = LocalDate.of(2024, 1, 31);
+    // Quantidade de capitais agrupadas em cada requisição no cenário em lote
+    private static final int BATCH_SIZE = 9;
+    // Localidades por requisição e threads no cenário com catálogo (-Dcatalog.path)
+    private static final int CATALOG_CHUNK_SIZE = 50;
+    private static final int CATALOG_THREADS = 8;
+    // Dias por requisição e threads no modo de histórico longo (-Dhistory.start / -Dhistory.end)
+    private static final int HISTORY_CHUNK_DAYS = 92;
+    private static final int HISTORY_THREADS = 16;
+    // Limites do cache de respostas: entradas em memória e bytes em disco
+    private static final int CACHE_MEMORY_ENTRIES = 1024;
+    private static final long CACHE_DISK_BYTES = 64L * 1024 * 1024;
+    // Tempo limite de cada tentativa e da rodada inteira no cenário com hedging
+    private static final Duration ATTEMPT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration ROUND_TIMEOUT = Duration.ofMinutes(2);
+    // Consultas de exemplo sobre o índice dos resultados
+    private static final int HOTTEST_DAYS = 10;
+    private static final double HOT_DAY_THRESHOLD = 35.0;
 
     /**
      * Ponto de entrada do programa.
@@ -25,53 +53,228 @@ public class App {
         // Carrega a lista de capitais a serem processadas
         List<CapitalsData.Capital> capitals = CapitalsData.getCapitals();
         // Cria uma instância para armazenar os resultados
-        ResultStore resultStore = new ResultStore();
+        ResultStore resultStore = newResultStore(START_DATE, END_DATE);
 
         // --- Cenário 1: Versão Sequencial (Sem Threads) ---
         System.out.println("--- Iniciando Experimento: Versão Sem Threads ---");
         NoThreadExperiment noThreadExperiment = new NoThreadExperiment(capitals, resultStore, START_DATE, END_DATE);
-        runExperimentSet(noThreadExperiment);
+        runExperimentSet("Sequencial", noThreadExperiment);
 
         // --- Cenários 2, 3 e 4: Versões Concorrentes ---
         int[] threadCounts = {3, 9, 27};
         for (int numThreads : threadCounts) {
             System.out.printf("--- Iniciando Experimento: Versão com %d Threads ---\n", numThreads);
             ThreadedExperiment threadedExperiment = new ThreadedExperiment(capitals, resultStore, START_DATE, END_DATE, numThreads);
-            runExperimentSet(threadedExperiment);
+            runExperimentSet(numThreads + " threads", threadedExperiment);
+        }
+
+        // --- Cenário 5: Versão Assíncrona (HttpClient com HTTP/2 e conexões compartilhadas) ---
+        System.out.println("--- Iniciando Experimento: Versão Assíncrona (HttpClient) ---");
+        AsyncExperiment asyncExperiment = new AsyncExperiment(capitals, resultStore, START_DATE, END_DATE);
+        runExperimentSet("Assíncrona (HttpClient)", asyncExperiment);
+
+        // --- Cenário 6: Uma thread (virtual, quando disponível) por capital ---
+        System.out.printf("--- Iniciando Experimento: Versão com Uma Thread %s ---\n",
+                VirtualThreadExperiment.virtualThreadsAvailable() ? "Virtual por Capital"
+                        : "por Capital (até " + VirtualThreadExperiment.PLATFORM_THREADS + " de Plataforma)");
+        VirtualThreadExperiment virtualThreadExperiment = new VirtualThreadExperiment(capitals, resultStore, START_DATE, END_DATE);
+        runExperimentSet("Uma thread por capital", virtualThreadExperiment);
+
+        // --- Cenário 7: Requisições em lote (várias capitais por requisição), um lote por thread ---
+        int numBatches = (capitals.size() + BATCH_SIZE - 1) / BATCH_SIZE;
+        System.out.printf("--- Iniciando Experimento: Versão em Lotes de %d Capitais (%d Threads) ---\n", BATCH_SIZE, numBatches);
+        BatchedExperiment batchedExperiment = new BatchedExperiment(capitals, resultStore, START_DATE, END_DATE, BATCH_SIZE, numBatches);
+        runExperimentSet("Lotes de " + BATCH_SIZE, batchedExperiment);
+
+        // --- Cenário 8: 27 Threads com cache de respostas (memória + disco) ---
+        // Só a primeira rodada vai à rede; as demais são atendidas pelo cache, sem parsing de JSON.
+        System.out.println("--- Iniciando Experimento: Versão com 27 Threads e Cache ---");
+        WeatherDataCache cache = new WeatherDataCache(CACHE_MEMORY_ENTRIES,
+                Path.of(System.getProperty("java.io.tmpdir"), "weather-cache"), CACHE_DISK_BYTES);
+        ThreadedExperiment cachedExperiment = new ThreadedExperiment(capitals, resultStore, START_DATE, END_DATE, 27);
+        cachedExperiment.setStreamingParser(true);
+        cachedExperiment.setWeatherApiClient(new CachingWeatherApiClient(cachedExperiment.getWeatherApiClient(), cache));
+        runExperimentSet("27 threads com cache", cachedExperiment);
+        System.out.println(cache);
+
+        // --- Cenário 9: Pipeline busca → parsing → agregação com filas limitadas ---
+        // 27 workers de I/O, um worker de parsing por núcleo e uma thread de agregação.
+        System.out.println("--- Iniciando Experimento: Versão em Pipeline (27 Workers de Busca) ---");
+        PipelinedExperiment pipelinedExperiment = new PipelinedExperiment(capitals, resultStore, START_DATE, END_DATE, 27);
+        runExperimentSet("Pipeline", pipelinedExperiment);
+        System.out.println(pipelinedExperiment.stageReport());
+
+        // --- Cenário 10: Concorrência adaptativa (AIMD), sem número fixo de threads ---
+        System.out.println("--- Iniciando Experimento: Versão com Concorrência Adaptativa ---");
+        AdaptiveExperiment adaptiveExperiment = new AdaptiveExperiment(capitals, resultStore, START_DATE, END_DATE);
+        runExperimentSet("Adaptativa", adaptiveExperiment);
+        System.out.println(adaptiveExperiment.getLimiter());
+
+        // --- Cenário 11: Atualização incremental (só busca os dias que faltam ou estão desatualizados) ---
+        // Usa um ResultStore próprio, pois os resultados e a cobertura são mantidos entre as rodadas.
+        System.out.println("--- Iniciando Experimento: Versão Incremental (27 Threads) ---");
+        IncrementalExperiment incrementalExperiment = new IncrementalExperiment(capitals, newResultStore(START_DATE, END_DATE), START_DATE, END_DATE, 27);
+        runExperimentSet("Incremental", incrementalExperiment);
+        System.out.printf("Última rodada: %d requisições, %d dias buscados\n",
+                incrementalExperiment.getLastRequests(), incrementalExperiment.getLastDaysFetched());
+
+        // --- Cenário 12: 27 Threads com tempo limite por tentativa, repetições com jitter e hedging no p95 ---
+        System.out.println("--- Iniciando Experimento: Versão com 27 Threads, Repetições e Hedging ---");
+        ThreadedExperiment hedgedExperiment = new ThreadedExperiment(capitals, resultStore, START_DATE, END_DATE, 27);
+        ResilientWeatherApiClient resilientClient = new ResilientWeatherApiClient(ATTEMPT_TIMEOUT);
+        hedgedExperiment.setWeatherApiClient(resilientClient);
+        hedgedExperiment.setRoundTimeout(ROUND_TIMEOUT);
+        runExperimentSet("27 threads com hedging", hedgedExperiment);
+        System.out.println(resilientClient);
+
+        // --- Cenário 13 (opcional, -Drequests.coalesce=true): experimentos simultâneos com um cliente compartilhado ---
+        // As buscas iguais dos três experimentos que se sobrepõem viram uma única requisição.
+        if (Boolean.getBoolean("requests.coalesce")) {
+            runCoalescedJobs(capitals, resultStore);
+        }
+
+        // Catálogo opcional de localidades (ex.: -Dcatalog.path=municipios.csv), percorrido em lotes de localidades próximas
+        String catalogPath = System.getProperty("catalog.path");
+        if (catalogPath != null) {
+            runCatalogExperiment(Path.of(catalogPath), resultStore);
         }
+
+        // Histórico longo opcional (ex.: -Dhistory.start=2014-01-01 -Dhistory.end=2023-12-31), buscado na API de arquivo
+        String historyStart = System.getProperty("history.start");
+        if (historyStart != null) {
+            LocalDate historyEnd = LocalDate.parse(System.getProperty("history.end", END_DATE.toString()));
+            runHistoryExperiment(capitals, resultStore, LocalDate.parse(historyStart), historyEnd);
+        }
+
+        // Snapshot binário opcional dos resultados da última rodada (apenas com o store colunar)
+        String snapshotPath = System.getProperty("results.snapshot");
+        if (snapshotPath != null && resultStore instanceof ColumnarResultStore) {
+            try {
+                ((ColumnarResultStore) resultStore).saveSnapshot(Path.of(snapshotPath));
+                System.out.println("Snapshot dos resultados gravado em " + snapshotPath);
+            } catch (IOException e) {
+                System.err.println("Erro ao gravar o snapshot: " + e.getMessage());
+            }
+        }
+
+        // Consultas indexadas sobre os resultados da última rodada
+        ResultIndex index = ResultIndex.build(resultStore);
+        System.out.println("Dias mais quentes: " + index.top(ResultIndex.Metric.MAX, HOTTEST_DAYS, START_DATE, END_DATE));
+        System.out.printf("Capitais com máxima acima de %.0f °C: %s\n", HOT_DAY_THRESHOLD,
+                index.locationsAbove(HOT_DAY_THRESHOLD, START_DATE, END_DATE));
+
+        // Métricas acumuladas de todas as fases (também disponíveis via JMX em com.avaliacao:type=WeatherMetrics)
+        System.out.println(WeatherMetrics.get());
+
+        exportResults();
     }
 
     /**
-     * Executa um conjunto de testes (10 rodadas) para um determinado tipo de experimento.
+     * Executa um conjunto de testes (aquecimento + 10 rodadas) para um determinado tipo de experimento.
+     * @param name O nome do cenário, usado no relatório exportado.
      * @param runner A implementação do experimento a ser executado (com ou sem threads).
      */
-    private static void runExperimentSet(ExperimentRunner runner) {
-        List<Long> executionTimes = new ArrayList<>();
-        ResultStore resultStore = runner.getResultStore();
-
-        // Loop para executar o experimento 10 vezes e coletar os tempos
-        for (int i = 1; i <= NUM_REPETITIONS; i++) {
-            System.out.printf("Rodada %d/%d...\n", i, NUM_REPETITIONS);
-            resultStore.clear(); // Limpa os resultados da rodada anterior
-            try {
-                long time = runner.runAndMeasureTime();
-                executionTimes.add(time);
-                System.out.printf("Rodada %d concluída em %d ms.\n", i, time);
-            } catch (Exception e) {
-                System.err.println("Erro durante a execução do experimento: " + e.getMessage());
-                e.printStackTrace();
-            }
+    private static void runExperimentSet(String name, ExperimentRunner runner) {
+        // Agregação com os núcleos sobre arrays primitivos (-Daggregation.vectorized=true)
+        if (Boolean.getBoolean("aggregation.vectorized")) {
+            runner.setDataProcessor(new VectorizedDataProcessor());
+            System.out.println("Agregação: " + AggregationKernels.implementation());
         }
+        BenchmarkResult result = HARNESS.run(name, runner);
+        RESULTS.add(result);
 
-        // Calcula a média dos tempos de execução
-        double averageTime = executionTimes.stream()
-                .mapToLong(Long::longValue)
-                .average()
-                .orElse(0.0);
-
-        System.out.printf("\nTempo médio de execução (%d rodadas): %.2f ms\n\n", NUM_REPETITIONS, averageTime);
+        System.out.printf("\n%s\n\n", result);
         
         // Exibe os resultados detalhados da última rodada
         runner.displayResults();
     }
+
+    /**
+     * Executa ao mesmo tempo um experimento com 27 threads, um com 9 threads e parser de streaming
+     * e um assíncrono, todos com o mesmo CoalescingWeatherApiClient.Async.
+     */
+    private static void runCoalescedJobs(List<CapitalsData.Capital> capitals, ResultStore resultStore) {
+        System.out.println("--- Iniciando Experimento: Três Experimentos Simultâneos com Requisições Agrupadas ---");
+        CoalescingWeatherApiClient.Async sharedClient = new CoalescingWeatherApiClient.Async(new AsyncWeatherApiClient());
+        ThreadedExperiment threaded = new ThreadedExperiment(capitals, resultStore, START_DATE, END_DATE, 27);
+        threaded.setWeatherApiClient(sharedClient);
+        ThreadedExperiment streaming = new ThreadedExperiment(capitals, resultStore, START_DATE, END_DATE, 9);
+        streaming.setStreamingParser(true);
+        streaming.setWeatherApiClient(sharedClient);
+        AsyncExperiment async = new AsyncExperiment(capitals, resultStore, START_DATE, END_DATE, sharedClient);
+        ConcurrentJobsExperiment jobs = new ConcurrentJobsExperiment(capitals, resultStore, START_DATE, END_DATE,
+                List.of(threaded, streaming, async));
+        BenchmarkResult result = HARNESS.run("Simultâneos com agrupamento", jobs);
+        RESULTS.add(result);
+        System.out.printf("\n%s\n\n%s\n\n", result, sharedClient);
+    }
+
+    /**
+     * Cria o ResultStore de um período: o colunar (-Dresults.columnar=true) ou o original, baseado em mapas.
+     */
+    private static ResultStore newResultStore(LocalDate startDate, LocalDate endDate) {
+        if (Boolean.getBoolean("results.columnar")) {
+            return new ColumnarResultStore(startDate, endDate);
+        }
+        return new ResultStore();
+    }
+
+    /**
+     * Executa uma única rodada do modo de histórico longo (um backfill de anos não é repetido 12 vezes)
+     * e exibe o resumo anual de cada capital.
+     */
+    private static void runHistoryExperiment(List<CapitalsData.Capital> capitals, ResultStore resultStore,
+                                             LocalDate startDate, LocalDate endDate) {
+        // O store colunar é criado para o período do histórico
+        ResultStore historyStore = resultStore instanceof ColumnarResultStore ? newResultStore(startDate, endDate) : resultStore;
+        HistoryExperiment historyExperiment = new HistoryExperiment(capitals, historyStore, startDate, endDate,
+                HISTORY_CHUNK_DAYS, HISTORY_THREADS);
+        historyExperiment.setWeatherApiClient(new WeatherApiClient(WeatherApiClient.archiveUrl()));
+        System.out.printf("--- Iniciando Experimento: Histórico de %s a %s (%d partes de %d dias por capital) ---\n",
+                startDate, endDate, historyExperiment.chunksPerLocation(), HISTORY_CHUNK_DAYS);
+        historyStore.clear();
+        try {
+            long millis = historyExperiment.runAndMeasureTime();
+            System.out.printf("Histórico concluído em %d ms (%s)\n", millis, historyExperiment.getRequestLatencies());
+            System.out.print(historyExperiment.yearlyReport());
+        } catch (Exception e) {
+            System.err.println("Erro durante a execução do histórico: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Carrega um catálogo (CSV ou binário) e o executa em lotes espaciais.
+     * Os resultados por localidade não são exibidos, pois o catálogo pode ter milhares de pontos.
+     */
+    private static void runCatalogExperiment(Path catalogFile, ResultStore resultStore) {
+        LocationCatalog catalog;
+        try {
+            long start = System.nanoTime();
+            catalog = LocationCatalog.load(catalogFile);
+            System.out.printf("--- Catálogo %s: %d localidades (%d nomes distintos) carregadas em %.1f ms ---\n",
+                    catalogFile, catalog.size(), catalog.distinctNames(), (System.nanoTime() - start) / 1e6);
+        } catch (IOException e) {
+            System.err.println("Erro ao carregar o catálogo " + catalogFile + ": " + e.getMessage());
+            return;
+        }
+        CatalogExperiment catalogExperiment = new CatalogExperiment(catalog, resultStore, START_DATE, END_DATE,
+                CATALOG_CHUNK_SIZE, CATALOG_THREADS);
+        BenchmarkResult result = HARNESS.run("Catálogo", catalogExperiment);
+        RESULTS.add(result);
+        System.out.printf("\n%s\n\n", result);
+    }
+
+    /**
+     * Exporta os resultados de todos os cenários em CSV (acumulado entre execuções) e JSON.
+     */
+    private static void exportResults() {
+        BenchmarkReport report = new BenchmarkReport(BenchmarkReport.defaultLabel());
+        try {
+            report.appendCsv(RESULTS_CSV, RESULTS);
+            report.writeJson(RESULTS_JSON, RESULTS);
+            System.out.printf("Resultados exportados para %s e %s\n", RESULTS_CSV, RESULTS_JSON);
+        } catch (IOException e) {
+            System.err.println("Erro ao exportar os resultados: " + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.avaliacao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Implementação do experimento com requisições não bloqueantes.
+ * Dispara todas as requisições de uma vez pelo AsyncWeatherApiClient e processa
+ * cada resposta assim que ela chega, sem manter uma thread bloqueada por capital.
+ */
+public class AsyncExperiment extends ExperimentRunner {
+
+    private final AsyncWeatherApiClient asyncClient;
+
+    public AsyncExperiment(List<CapitalsData.Capital> capitals, ResultStore resultStore, LocalDate startDate, LocalDate endDate) {
+        this(capitals, resultStore, startDate, endDate, new AsyncWeatherApiClient());
+    }
+
+    public AsyncExperiment(List<CapitalsData.Capital> capitals, ResultStore resultStore, LocalDate startDate, LocalDate endDate,
+                           AsyncWeatherApiClient asyncClient) {
+        super(capitals, resultStore, startDate, endDate);
+        this.asyncClient = asyncClient;
+        setWeatherApiClient(asyncClient);
+    }
+
+    /**
+     * Dispara uma requisição assíncrona por capital e aguarda todas terminarem.
+     * Erros em uma capital são registrados sem interromper as demais, como no ThreadedExperiment.
+     */
+    @Override
+    public void runExperiment() {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(capitals.size());
+
+        for (CapitalsData.Capital capital : capitals) {
+            long start = System.nanoTime();
+            CompletableFuture<Void> processed;
+            if (isStreamingParser()) {
+                // Parser de streaming sobre os bytes da resposta, na thread que completou a requisição
+                processed = asyncClient
+                        .getWeatherBytesAsync(capital.getLatitude(), capital.getLongitude(), startDate, endDate)
+                        .thenAccept(body -> parseAndStore(capital, body));
+            } else {
+                processed = asyncClient
+                        .getWeatherDataAsync(capital.getLatitude(), capital.getLongitude(), startDate, endDate)
+                        .thenAccept(jsonData -> processAndStore(capital, jsonData));
+            }
+            CompletableFuture<Void> future = processed
+                    .whenComplete((ignored, error) -> recordRequestLatency(System.nanoTime() - start))
+                    .exceptionally(e -> {
+                        System.err.println("Erro ao processar capital: " + capital.getName() + ": "
+                                + AsyncWeatherApiClient.unwrap(e).getMessage());
+                        return null;
+                    });
+            futures.add(future);
+        }
+
+        // Só retorna quando todas as capitais foram processadas, para que a medição de tempo seja correta.
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    private void parseAndStore(CapitalsData.Capital capital, ByteBuffer body) {
+        TemperatureSeries temperatures = temperatureBuffer();
+        try {
+            asyncClient.parseTemperatures(body, temperatures);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        processAndStore(capital, temperatures);
+    }
+}
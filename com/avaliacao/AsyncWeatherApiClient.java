@@ -0,0 +1,212 @@
+package com.avaliacao;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Cliente alternativo da API da Open-Meteo baseado em java.net.http.HttpClient.
+ * Todas as instâncias compartilham um único HttpClient (HTTP/2 com conexões mantidas abertas),
+ * de modo que as 27 requisições de uma rodada viram streams multiplexados em poucas conexões,
+ * em vez de 27 conexões novas com handshake TLS cada uma.
+ */
+public class AsyncWeatherApiClient extends WeatherApiClient {
+
+    // Tempos limite padrão para estabelecer a conexão e para cada requisição completa
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    // Cliente compartilhado: o pool de conexões do HttpClient só é reaproveitado se a instância for a mesma
+    private static final HttpClient SHARED_CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(CONNECT_TIMEOUT)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+
+    public AsyncWeatherApiClient() {
+        this(SHARED_CLIENT, DEFAULT_REQUEST_TIMEOUT);
+    }
+
+    public AsyncWeatherApiClient(Duration requestTimeout) {
+        this(SHARED_CLIENT, requestTimeout);
+    }
+
+    public AsyncWeatherApiClient(HttpClient httpClient, Duration requestTimeout) {
+        this.httpClient = httpClient;
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Dispara a requisição de forma não bloqueante.
+     * @return Um CompletableFuture que será completado com o JSON da resposta,
+     *         ou com erro caso o status HTTP não seja 200 ou o tempo limite seja atingido.
+     */
+    public CompletableFuture<String> getWeatherDataAsync(double latitude, double longitude, LocalDate startDate, LocalDate endDate) {
+        return fetchBytesAsync(buildUrl(latitude, longitude, startDate, endDate))
+                .thenApply(body -> new String(body, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Dispara a requisição de forma não bloqueante, entregando o corpo como bytes brutos
+     * para o parser de streaming (sem decodificar para String).
+     */
+    public CompletableFuture<ByteBuffer> getWeatherBytesAsync(double latitude, double longitude, LocalDate startDate, LocalDate endDate) {
+        return fetchBytesAsync(buildUrl(latitude, longitude, startDate, endDate))
+                .thenApply(ByteBuffer::wrap);
+    }
+
+    /**
+     * Requisição assíncrona instrumentada. O HttpClient não expõe DNS e conexão separadamente,
+     * então o tempo até o primeiro byte inclui essas fases.
+     */
+    private CompletableFuture<byte[]> fetchBytesAsync(String urlString) {
+        FetchTrace trace = FetchTrace.start(urlString);
+        return httpClient.sendAsync(newRequest(urlString), traced(trace, HttpResponse.BodyHandlers.ofByteArray()))
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new HttpStatusException(response.statusCode(), urlString);
+                    }
+                    trace.succeed(response.body().length);
+                    return response.body();
+                })
+                .whenComplete((body, error) -> {
+                    if (error != null) {
+                        trace.fail(error);
+                    }
+                });
+    }
+
+    /**
+     * Versão em lote do getWeatherDataAsync: uma requisição para várias localidades.
+     * @return Um CompletableFuture com o JSON da resposta (um array com um objeto por localidade).
+     */
+    public CompletableFuture<String> getWeatherDataBatchAsync(List<CapitalsData.Capital> locations, LocalDate startDate, LocalDate endDate) {
+        return fetchBytesAsync(buildBatchUrl(locations, startDate, endDate))
+                .thenApply(body -> new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public byte[] getWeatherBytes(double latitude, double longitude, LocalDate startDate, LocalDate endDate) throws Exception {
+        try {
+            return getWeatherBytesAsync(latitude, longitude, startDate, endDate).get().array();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    /**
+     * Busca e extrai as temperaturas lendo o corpo da resposta diretamente do InputStream do HttpClient.
+     */
+    @Override
+    public boolean fetchTemperatures(double latitude, double longitude, LocalDate startDate, LocalDate endDate,
+                                     TemperatureSeries target) throws Exception {
+        try (InputStream body = sendForBody(buildUrl(latitude, longitude, startDate, endDate))) {
+            return parseTemperatures(body, target);
+        }
+    }
+
+    /**
+     * Requisição bloqueante que devolve o corpo como InputStream instrumentado (o download termina
+     * quando ele é fechado).
+     * @throws HttpStatusException se o status HTTP não for 200; o corpo da resposta de erro é fechado.
+     */
+    private InputStream sendForBody(String urlString) throws Exception {
+        FetchTrace trace = FetchTrace.start(urlString);
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(newRequest(urlString), traced(trace, HttpResponse.BodyHandlers.ofInputStream()));
+        } catch (Exception e) {
+            trace.fail(e);
+            throw e;
+        }
+        InputStream body = trace.body(response.body());
+        if (response.statusCode() != 200) {
+            HttpStatusException error = new HttpStatusException(response.statusCode(), urlString);
+            trace.fail(error);
+            body.close();
+            throw error;
+        }
+        return body;
+    }
+
+    /**
+     * Versão bloqueante, para que este cliente possa substituir o WeatherApiClient
+     * em qualquer experimento existente.
+     */
+    @Override
+    public String getWeatherData(double latitude, double longitude, LocalDate startDate, LocalDate endDate) throws Exception {
+        try {
+            return getWeatherDataAsync(latitude, longitude, startDate, endDate).get();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    /**
+     * Busca em lote pelo HttpClient, para que BatchedExperiment e CatalogExperiment usem
+     * as mesmas conexões HTTP/2 das demais buscas deste cliente.
+     */
+    @Override
+    public String getWeatherDataBatch(List<CapitalsData.Capital> locations, LocalDate startDate, LocalDate endDate) throws Exception {
+        try {
+            return getWeatherDataBatchAsync(locations, startDate, endDate).get();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    /**
+     * Versão em lote do fetchTemperatures, lendo o corpo diretamente do InputStream do HttpClient.
+     */
+    @Override
+    public int fetchTemperaturesBatch(List<CapitalsData.Capital> locations, LocalDate startDate, LocalDate endDate,
+                                      TemperatureSeries[] targets) throws Exception {
+        try (InputStream body = sendForBody(buildBatchUrl(locations, startDate, endDate))) {
+            return parseTemperaturesBatch(body, targets);
+        }
+    }
+
+    private HttpRequest newRequest(String urlString) {
+        return HttpRequest.newBuilder(URI.create(urlString))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+    }
+
+    /**
+     * Envolve um BodyHandler para marcar a chegada dos cabeçalhos (primeiro byte) na requisição.
+     */
+    private static <T> HttpResponse.BodyHandler<T> traced(FetchTrace trace, HttpResponse.BodyHandler<T> handler) {
+        return responseInfo -> {
+            trace.mark(WeatherMetrics.Phase.TIME_TO_FIRST_BYTE);
+            trace.status(responseInfo.statusCode());
+            return handler.apply(responseInfo);
+        };
+    }
+
+    /**
+     * Remove as camadas de CompletionException/ExecutionException para expor o erro original.
+     */
+    static Exception unwrap(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        if (t instanceof Exception) {
+            return (Exception) t;
+        }
+        throw (Error) t;
+    }
+}
@@ -0,0 +1,109 @@
+package com.avaliacao;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementação do experimento com requisições em lote.
+ * Agrupa N capitais por requisição (a API aceita listas de coordenadas separadas por vírgula)
+ * e distribui os lotes entre um pool de threads, reduzindo o número de requisições por rodada
+ * de 27 para ceil(27 / N).
+ */
+public class BatchedExperiment extends ExperimentRunner {
+
+    private final int batchSize;
+    private final int numThreads;
+
+    // Séries reaproveitadas por thread no modo de streaming, uma por posição do lote
+    private final ThreadLocal<TemperatureSeries[]> batchBuffers;
+
+    public BatchedExperiment(List<CapitalsData.Capital> capitals, ResultStore resultStore, LocalDate startDate, LocalDate endDate,
+                             int batchSize, int numThreads) {
+        super(capitals, resultStore, startDate, endDate);
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("O tamanho do lote deve ser positivo: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        this.numThreads = numThreads;
+        this.batchBuffers = ThreadLocal.withInitial(() -> {
+            TemperatureSeries[] buffers = new TemperatureSeries[batchSize];
+            for (int i = 0; i < batchSize; i++) {
+                buffers[i] = new TemperatureSeries();
+            }
+            return buffers;
+        });
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Divide as capitais em lotes e processa cada lote em uma tarefa do pool.
+     */
+    @Override
+    public void runExperiment() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+
+        for (List<CapitalsData.Capital> batch : splitIntoBatches()) {
+            executor.submit(() -> {
+                try {
+                    fetchBatchAndProcess(batch);
+                } catch (Exception e) {
+                    System.err.println("Erro ao processar lote iniciado em " + batch.get(0).getName() + ": " + e.getMessage());
+                }
+            });
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+    }
+
+    private List<List<CapitalsData.Capital>> splitIntoBatches() {
+        List<List<CapitalsData.Capital>> batches = new ArrayList<>();
+        for (int from = 0; from < capitals.size(); from += batchSize) {
+            batches.add(capitals.subList(from, Math.min(from + batchSize, capitals.size())));
+        }
+        return batches;
+    }
+
+    /**
+     * Faz uma única requisição para o lote e separa a resposta de volta por capital.
+     * @param batch As capitais do lote, na ordem em que aparecem na URL.
+     */
+    protected void fetchBatchAndProcess(List<CapitalsData.Capital> batch) throws Exception {
+        WeatherApiClient client = getWeatherApiClient();
+        long start = System.nanoTime();
+        try {
+            if (isStreamingParser()) {
+                TemperatureSeries[] buffers = batchBuffers.get();
+                int received = client.fetchTemperaturesBatch(batch, startDate, endDate, buffers);
+                checkResponseSize(batch, received);
+                for (int i = 0; i < batch.size(); i++) {
+                    processAndStore(batch.get(i), buffers[i]);
+                }
+                return;
+            }
+
+            String jsonData = client.getWeatherDataBatch(batch, startDate, endDate);
+            List<List<Double>> temperaturesByLocation = client.parseTemperaturesBatch(jsonData);
+            checkResponseSize(batch, temperaturesByLocation.size());
+            for (int i = 0; i < batch.size(); i++) {
+                processAndStore(batch.get(i), temperaturesByLocation.get(i));
+            }
+        } finally {
+            // Uma amostra por requisição em lote
+            recordRequestLatency(System.nanoTime() - start);
+        }
+    }
+
+    private static void checkResponseSize(List<CapitalsData.Capital> batch, int received) {
+        if (received != batch.size()) {
+            throw new IllegalStateException("A API devolveu " + received + " localidades para um lote de " + batch.size());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.avaliacao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Executa um experimento com rodadas de aquecimento (descartadas) seguidas das rodadas medidas.
+ * O aquecimento deixa o JIT compilar os caminhos quentes e abre as conexões HTTP,
+ * para que as rodadas medidas reflitam o regime estável e não o custo de inicialização.
+ */
+public class BenchmarkHarness {
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+
+    public BenchmarkHarness(int warmupIterations, int measurementIterations) {
+        if (warmupIterations < 0 || measurementIterations < 1) {
+            throw new IllegalArgumentException("Rodadas inválidas: aquecimento " + warmupIterations
+                    + ", medição " + measurementIterations);
+        }
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+    }
+
+    /**
+     * Executa o aquecimento e as rodadas medidas de um experimento.
+     * O ResultStore é limpo antes de cada rodada (exceto em experimentos incrementais),
+     * e o histograma de latências do experimento é zerado ao fim do aquecimento.
+     * @param name O nome do cenário, usado nos relatórios.
+     * @param runner O experimento a ser executado.
+     * @return As estatísticas das rodadas medidas.
+     */
+    public BenchmarkResult run(String name, ExperimentRunner runner) {
+        ResultStore resultStore = runner.getResultStore();
+
+        for (int i = 1; i <= warmupIterations; i++) {
+            System.out.printf("Aquecimento %d/%d...\n", i, warmupIterations);
+            if (!runner.isIncremental()) {
+                resultStore.clear();
+            }
+            try {
+                runner.runAndMeasureNanos();
+            } catch (Exception e) {
+                System.err.println("Erro durante o aquecimento: " + e.getMessage());
+            }
+        }
+        runner.getRequestLatencies().reset();
+
+        List<Double> iterationMillis = new ArrayList<>();
+        int failed = 0;
+        for (int i = 1; i <= measurementIterations; i++) {
+            System.out.printf("Rodada %d/%d...\n", i, measurementIterations);
+            if (!runner.isIncremental()) {
+                resultStore.clear(); // Limpa os resultados da rodada anterior
+            }
+            try {
+                double millis = runner.runAndMeasureNanos() / 1e6;
+                iterationMillis.add(millis);
+                System.out.printf("Rodada %d concluída em %.2f ms.\n", i, millis);
+            } catch (Exception e) {
+                failed++;
+                System.err.println("Erro durante a execução do experimento: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        return new BenchmarkResult(name, warmupIterations, iterationMillis, failed, runner.getRequestLatencies());
+    }
+}
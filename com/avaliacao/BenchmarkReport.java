@@ -0,0 +1,104 @@
+package com.avaliacao;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Exporta os resultados do BenchmarkHarness em CSV e JSON, identificados por um rótulo
+ * (por exemplo, o commit testado), para comparar execuções feitas em versões diferentes.
+ * O CSV é acrescentado a cada execução; o JSON contém apenas a execução atual.
+ */
+public class BenchmarkReport {
+
+    private static final String CSV_HEADER = "label,timestamp,scenario,warmup,iterations,failed,mean_ms,stddev_ms,ci95_ms,"
+            + "min_ms,max_ms,requests,throughput_rps,p50_ms,p90_ms,p99_ms,max_latency_ms";
+
+    private final String label;
+    private final Instant timestamp;
+
+    public BenchmarkReport(String label) {
+        this.label = label;
+        this.timestamp = Instant.now();
+    }
+
+    /**
+     * Rótulo padrão: a propriedade de sistema "benchmark.label", a variável de ambiente GIT_COMMIT ou "local".
+     */
+    public static String defaultLabel() {
+        String label = System.getProperty("benchmark.label");
+        if (label == null || label.isBlank()) {
+            label = System.getenv("GIT_COMMIT");
+        }
+        return label == null || label.isBlank() ? "local" : label;
+    }
+
+    /**
+     * Acrescenta uma linha por cenário ao arquivo CSV, criando o cabeçalho se o arquivo for novo.
+     */
+    public void appendCsv(Path file, List<BenchmarkResult> results) throws IOException {
+        boolean isNew = !Files.exists(file) || Files.size(file) == 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (isNew) {
+                writer.write(CSV_HEADER);
+                writer.newLine();
+            }
+            for (BenchmarkResult result : results) {
+                writer.write(String.format(Locale.ROOT, "%s,%s,%s,%d,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%d,%.2f,%.3f,%.3f,%.3f,%.3f",
+                        csvField(label), timestamp, csvField(result.getName()), result.getWarmupIterations(),
+                        result.getIterations(), result.getFailedIterations(), result.getMeanMillis(),
+                        result.getStdDevMillis(), result.getConfidenceInterval95Millis(), result.getMinMillis(),
+                        result.getMaxMillis(), result.getRequests(), result.getThroughputPerSecond(),
+                        result.getLatencyP50Millis(), result.getLatencyP90Millis(), result.getLatencyP99Millis(),
+                        result.getLatencyMaxMillis()));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Grava todos os cenários da execução atual em um arquivo JSON, incluindo o tempo de cada rodada.
+     */
+    public void writeJson(Path file, List<BenchmarkResult> results) throws IOException {
+        JSONArray scenarios = new JSONArray();
+        for (BenchmarkResult result : results) {
+            JSONObject scenario = new JSONObject();
+            scenario.put("scenario", result.getName());
+            scenario.put("warmup", result.getWarmupIterations());
+            scenario.put("iterations", result.getIterations());
+            scenario.put("failed", result.getFailedIterations());
+            scenario.put("iteration_ms", new JSONArray(result.getIterationMillis()));
+            scenario.put("mean_ms", result.getMeanMillis());
+            scenario.put("stddev_ms", result.getStdDevMillis());
+            scenario.put("ci95_ms", result.getConfidenceInterval95Millis());
+            scenario.put("requests", result.getRequests());
+            scenario.put("throughput_rps", result.getThroughputPerSecond());
+            scenario.put("p50_ms", result.getLatencyP50Millis());
+            scenario.put("p90_ms", result.getLatencyP90Millis());
+            scenario.put("p99_ms", result.getLatencyP99Millis());
+            scenario.put("max_latency_ms", result.getLatencyMaxMillis());
+            scenarios.put(scenario);
+        }
+        JSONObject report = new JSONObject();
+        report.put("label", label);
+        report.put("timestamp", timestamp.toString());
+        report.put("scenarios", scenarios);
+        Files.writeString(file, report.toString(2), StandardCharsets.UTF_8);
+    }
+
+    private static String csvField(String value) {
+        if (value.contains(",") || value.contains("\"")) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
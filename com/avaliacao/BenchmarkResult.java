@@ -0,0 +1,112 @@
+package com.avaliacao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de um cenário medido pelo BenchmarkHarness: tempos de cada rodada,
+ * estatísticas (média, desvio padrão, intervalo de confiança de 95%), percentis da latência
+ * por requisição e vazão em requisições por segundo.
+ */
+public class BenchmarkResult {
+
+    // Valores críticos da distribuição t de Student (bicaudal, 95%) para 1 a 30 graus de liberdade
+    private static final double[] T_CRITICAL_95 = {
+            12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+
+    private final String name;
+    private final int warmupIterations;
+    private final List<Double> iterationMillis;
+    private final int failedIterations;
+    private final long requests;
+    private final double latencyP50Millis;
+    private final double latencyP90Millis;
+    private final double latencyP99Millis;
+    private final double latencyMaxMillis;
+
+    public BenchmarkResult(String name, int warmupIterations, List<Double> iterationMillis, int failedIterations,
+                           LatencyHistogram latencies) {
+        this.name = name;
+        this.warmupIterations = warmupIterations;
+        this.iterationMillis = Collections.unmodifiableList(new ArrayList<>(iterationMillis));
+        this.failedIterations = failedIterations;
+        this.requests = latencies.getCount();
+        this.latencyP50Millis = latencies.getPercentileNanos(50) / 1e6;
+        this.latencyP90Millis = latencies.getPercentileNanos(90) / 1e6;
+        this.latencyP99Millis = latencies.getPercentileNanos(99) / 1e6;
+        this.latencyMaxMillis = latencies.getMaxNanos() / 1e6;
+    }
+
+    public String getName() { return name; }
+    public int getWarmupIterations() { return warmupIterations; }
+    public List<Double> getIterationMillis() { return iterationMillis; }
+    public int getIterations() { return iterationMillis.size(); }
+    public int getFailedIterations() { return failedIterations; }
+    public long getRequests() { return requests; }
+    public double getLatencyP50Millis() { return latencyP50Millis; }
+    public double getLatencyP90Millis() { return latencyP90Millis; }
+    public double getLatencyP99Millis() { return latencyP99Millis; }
+    public double getLatencyMaxMillis() { return latencyMaxMillis; }
+
+    public double getMeanMillis() {
+        return iterationMillis.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+    }
+
+    public double getMinMillis() {
+        return iterationMillis.stream().mapToDouble(Double::doubleValue).min().orElse(0.0);
+    }
+
+    public double getMaxMillis() {
+        return iterationMillis.stream().mapToDouble(Double::doubleValue).max().orElse(0.0);
+    }
+
+    /**
+     * @return O desvio padrão amostral dos tempos das rodadas.
+     */
+    public double getStdDevMillis() {
+        int n = iterationMillis.size();
+        if (n < 2) {
+            return 0.0;
+        }
+        double mean = getMeanMillis();
+        double sumOfSquares = 0.0;
+        for (double time : iterationMillis) {
+            sumOfSquares += (time - mean) * (time - mean);
+        }
+        return Math.sqrt(sumOfSquares / (n - 1));
+    }
+
+    /**
+     * @return A meia-largura do intervalo de confiança de 95% da média (média ± este valor).
+     */
+    public double getConfidenceInterval95Millis() {
+        int n = iterationMillis.size();
+        if (n < 2) {
+            return 0.0;
+        }
+        double t = n - 1 <= T_CRITICAL_95.length ? T_CRITICAL_95[n - 2] : 1.960;
+        return t * getStdDevMillis() / Math.sqrt(n);
+    }
+
+    /**
+     * @return Requisições por segundo durante as rodadas medidas.
+     */
+    public double getThroughputPerSecond() {
+        double totalMillis = iterationMillis.stream().mapToDouble(Double::doubleValue).sum();
+        return totalMillis <= 0 ? 0.0 : requests / (totalMillis / 1000.0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Tempo médio de execução (%d rodadas): %.2f ms ± %.2f ms (IC 95%%), desvio padrão %.2f ms, "
+                        + "mín %.2f ms, máx %.2f ms\nLatência por requisição: p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, "
+                        + "máx %.1f ms | Vazão: %.1f req/s",
+                getIterations(), getMeanMillis(), getConfidenceInterval95Millis(), getStdDevMillis(),
+                getMinMillis(), getMaxMillis(), latencyP50Millis, latencyP90Millis, latencyP99Millis,
+                latencyMaxMillis, getThroughputPerSecond());
+    }
+}
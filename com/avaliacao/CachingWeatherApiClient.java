@@ -0,0 +1,90 @@
+package com.avaliacao;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cliente que consulta um WeatherDataCache antes de delegar a busca para outro cliente.
+ * Atende às buscas que produzem séries já extraídas (fetchTemperatures e fetchTemperaturesBatch),
+ * por isso deve ser usado com o parser de streaming ativo no experimento.
+ * getWeatherData e getWeatherBytes continuam indo sempre à rede, pois o cache não guarda o JSON original.
+ */
+public class CachingWeatherApiClient extends WeatherApiClient {
+
+    private final WeatherApiClient delegate;
+    private final WeatherDataCache cache;
+
+    public CachingWeatherApiClient(WeatherApiClient delegate, WeatherDataCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    public WeatherDataCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public String getWeatherData(double latitude, double longitude, LocalDate startDate, LocalDate endDate) throws Exception {
+        return delegate.getWeatherData(latitude, longitude, startDate, endDate);
+    }
+
+    @Override
+    public byte[] getWeatherBytes(double latitude, double longitude, LocalDate startDate, LocalDate endDate) throws Exception {
+        return delegate.getWeatherBytes(latitude, longitude, startDate, endDate);
+    }
+
+    @Override
+    public String getWeatherDataBatch(List<CapitalsData.Capital> locations, LocalDate startDate, LocalDate endDate) throws Exception {
+        return delegate.getWeatherDataBatch(locations, startDate, endDate);
+    }
+
+    @Override
+    public boolean fetchTemperatures(double latitude, double longitude, LocalDate startDate, LocalDate endDate,
+                                     TemperatureSeries target) throws Exception {
+        WeatherRequestKey key = new WeatherRequestKey(latitude, longitude, startDate, endDate);
+        if (cache.get(key, target)) {
+            return true;
+        }
+        boolean found = delegate.fetchTemperatures(latitude, longitude, startDate, endDate, target);
+        // Só guarda respostas completas; respostas sem dados horários são buscadas de novo na próxima vez
+        if (found) {
+            cache.put(key, target);
+        }
+        return found;
+    }
+
+    /**
+     * Atende pelo cache as capitais já conhecidas e faz uma única requisição em lote para as restantes.
+     */
+    @Override
+    public int fetchTemperaturesBatch(List<CapitalsData.Capital> locations, LocalDate startDate, LocalDate endDate,
+                                      TemperatureSeries[] targets) throws Exception {
+        List<CapitalsData.Capital> missing = new ArrayList<>();
+        List<Integer> missingPositions = new ArrayList<>();
+        for (int i = 0; i < locations.size(); i++) {
+            CapitalsData.Capital location = locations.get(i);
+            WeatherRequestKey key = new WeatherRequestKey(location.getLatitude(), location.getLongitude(), startDate, endDate);
+            if (!cache.get(key, targets[i])) {
+                missing.add(location);
+                missingPositions.add(i);
+            }
+        }
+        if (missing.isEmpty()) {
+            return locations.size();
+        }
+
+        TemperatureSeries[] missingTargets = new TemperatureSeries[missing.size()];
+        for (int i = 0; i < missingTargets.length; i++) {
+            missingTargets[i] = targets[missingPositions.get(i)];
+        }
+        int received = delegate.fetchTemperaturesBatch(missing, startDate, endDate, missingTargets);
+        for (int i = 0; i < received; i++) {
+            CapitalsData.Capital location = missing.get(i);
+            if (missingTargets[i].size() > 0) {
+                cache.put(new WeatherRequestKey(location.getLatitude(), location.getLongitude(), startDate, endDate), missingTargets[i]);
+            }
+        }
+        return locations.size() - missing.size() + received;
+    }
+}
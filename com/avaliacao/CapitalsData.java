@@ -1,6 +1,7 @@
 package com.avaliacao;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -29,11 +30,25 @@ public class CapitalsData {
         public double getLongitude() { return longitude; }
     }
 
+    // A lista é montada uma única vez e compartilhada (é imutável)
+    private static final List<Capital> CAPITALS = Collections.unmodifiableList(createCapitals());
+
     /**
      * Retorna a lista completa das 27 capitais brasileiras.
-     * @return Uma lista de objetos do tipo Capital.
+     * @return Uma lista imutável de objetos do tipo Capital.
      */
     public static List<Capital> getCapitals() {
+        return CAPITALS;
+    }
+
+    /**
+     * Retorna as capitais em um LocationCatalog, no mesmo formato dos catálogos carregados de arquivo.
+     */
+    public static LocationCatalog getCatalog() {
+        return LocationCatalog.fromCapitals(CAPITALS);
+    }
+
+    private static List<Capital> createCapitals() {
         List<Capital> capitals = new ArrayList<>();
         capitals.add(new Capital("Aracaju", -10.9167, -37.05));
         capitals.add(new Capital("Belém", -1.4558, -48.5039));
@@ -0,0 +1,72 @@
+package com.avaliacao;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Experimento sobre um LocationCatalog de qualquer tamanho.
+ * O catálogo é percorrido em fatias de localidades próximas, e cada fatia vira uma requisição
+ * em lote (como no BatchedExperiment). Só as fatias em andamento têm objetos Capital criados,
+ * e a submissão é limitada para que a fila do executor não acumule o catálogo inteiro.
+ */
+public class CatalogExperiment extends BatchedExperiment {
+
+    // Tamanho da célula da grade usada para agrupar localidades próximas, em graus
+    private static final double DEFAULT_CELL_DEGREES = 1.0;
+
+    private final LocationCatalog catalog;
+    private final int chunkSize;
+    private final int numThreads;
+    private final double cellDegrees;
+
+    public CatalogExperiment(LocationCatalog catalog, ResultStore resultStore, LocalDate startDate, LocalDate endDate,
+                             int chunkSize, int numThreads) {
+        this(catalog, resultStore, startDate, endDate, chunkSize, numThreads, DEFAULT_CELL_DEGREES);
+    }
+
+    public CatalogExperiment(LocationCatalog catalog, ResultStore resultStore, LocalDate startDate, LocalDate endDate,
+                             int chunkSize, int numThreads, double cellDegrees) {
+        super(Collections.emptyList(), resultStore, startDate, endDate, chunkSize, numThreads);
+        this.catalog = catalog;
+        this.chunkSize = chunkSize;
+        this.numThreads = numThreads;
+        this.cellDegrees = cellDegrees;
+    }
+
+    public LocationCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Percorre as fatias espaciais, com no máximo 2 fatias por thread aguardando na fila.
+     */
+    @Override
+    public void runExperiment() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        Semaphore pending = new Semaphore(numThreads * 2);
+
+        try {
+            for (LocationCatalog.Chunk chunk : catalog.spatialChunks(chunkSize, cellDegrees)) {
+                pending.acquire();
+                executor.submit(() -> {
+                    List<CapitalsData.Capital> batch = chunk.toCapitals();
+                    try {
+                        fetchBatchAndProcess(batch);
+                    } catch (Exception e) {
+                        System.err.println("Erro ao processar lote iniciado em " + batch.get(0).getName() + ": " + e.getMessage());
+                    } finally {
+                        pending.release();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+        executor.awaitTermination(1, TimeUnit.HOURS);
+    }
+}
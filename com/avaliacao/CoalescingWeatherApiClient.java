@@ -0,0 +1,192 @@
+package com.avaliacao;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Cliente que agrupa buscas simultâneas da mesma coordenada e período em uma única requisição.
+ * Útil quando vários experimentos ou tarefas compartilham a mesma instância de cliente:
+ * enquanto uma requisição está em andamento, as chamadas iguais esperam por ela e recebem
+ * o mesmo corpo ou a mesma série já extraída, sem nova requisição nem novo parsing.
+ * Diferente do CachingWeatherApiClient, nada é guardado depois que a requisição termina.
+ * As buscas em lote são repassadas ao cliente delegado sem agrupamento.
+ * Para o caminho não bloqueante (AsyncExperiment), use CoalescingWeatherApiClient.Async.
+ */
+public class CoalescingWeatherApiClient extends WeatherApiClient {
+
+    private final WeatherApiClient delegate;
+
+    private final SingleFlight<WeatherRequestKey, String> jsonFlights = new SingleFlight<>();
+    private final SingleFlight<WeatherRequestKey, byte[]> bytesFlights = new SingleFlight<>();
+    // Série extraída pela requisição compartilhada (null se a resposta não tinha dados horários)
+    private final SingleFlight<WeatherRequestKey, TemperatureSeries> seriesFlights = new SingleFlight<>();
+    // O parsing é agrupado pela própria String (comparada com equals). Quando as chamadas recebem a
+    // instância compartilhada por jsonFlights, o equals para já na comparação de referência e o hash
+    // fica guardado na String, então a chave custa pouco mesmo para corpos grandes
+    private final SingleFlight<String, List<Double>> parseFlights = new SingleFlight<>();
+
+    public CoalescingWeatherApiClient(WeatherApiClient delegate) {
+        super(delegate.getBaseUrl());
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getWeatherData(double latitude, double longitude, LocalDate startDate, LocalDate endDate) throws Exception {
+        WeatherRequestKey key = new WeatherRequestKey(latitude, longitude, startDate, endDate);
+        return jsonFlights.call(key, () -> delegate.getWeatherData(latitude, longitude, startDate, endDate));
+    }
+
+    /**
+     * Os bytes devolvidos são compartilhados entre as chamadas agrupadas e não devem ser alterados.
+     */
+    @Override
+    public byte[] getWeatherBytes(double latitude, double longitude, LocalDate startDate, LocalDate endDate) throws Exception {
+        WeatherRequestKey key = new WeatherRequestKey(latitude, longitude, startDate, endDate);
+        return bytesFlights.call(key, () -> delegate.getWeatherBytes(latitude, longitude, startDate, endDate));
+    }
+
+    /**
+     * A requisição compartilhada é extraída para uma série própria, copiada em seguida para o
+     * destino de cada chamada (as séries de destino costumam ser buffers reaproveitados por thread).
+     */
+    @Override
+    public boolean fetchTemperatures(double latitude, double longitude, LocalDate startDate, LocalDate endDate,
+                                     TemperatureSeries target) throws Exception {
+        WeatherRequestKey key = new WeatherRequestKey(latitude, longitude, startDate, endDate);
+        TemperatureSeries shared = seriesFlights.call(key, () -> {
+            TemperatureSeries series = new TemperatureSeries();
+            return delegate.fetchTemperatures(latitude, longitude, startDate, endDate, series) ? series : null;
+        });
+        if (shared == null) {
+            target.clear();
+            return false;
+        }
+        target.copyFrom(shared);
+        return true;
+    }
+
+    /**
+     * A lista devolvida é compartilhada entre as chamadas agrupadas e, por isso, imutável.
+     */
+    @Override
+    public List<Double> parseTemperatures(String jsonData) {
+        try {
+            return parseFlights.call(jsonData, () -> Collections.unmodifiableList(delegate.parseTemperatures(jsonData)));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            // O parsing não lança exceções verificadas
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String getWeatherDataBatch(List<CapitalsData.Capital> locations, LocalDate startDate, LocalDate endDate) throws Exception {
+        return delegate.getWeatherDataBatch(locations, startDate, endDate);
+    }
+
+    @Override
+    public int fetchTemperaturesBatch(List<CapitalsData.Capital> locations, LocalDate startDate, LocalDate endDate,
+                                      TemperatureSeries[] targets) throws Exception {
+        return delegate.fetchTemperaturesBatch(locations, startDate, endDate, targets);
+    }
+
+    /**
+     * @return Requisições evitadas por terem sido agrupadas com outra em andamento (todas as formas de busca).
+     */
+    public long getDeduplicatedRequests() {
+        return jsonFlights.getDeduplicated() + bytesFlights.getDeduplicated() + seriesFlights.getDeduplicated();
+    }
+
+    /**
+     * @return Parsings de JSON evitados.
+     */
+    public long getDeduplicatedParses() {
+        return parseFlights.getDeduplicated();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Agrupamento de requisições: %d requisições evitadas (JSON %s; bytes %s; séries %s), %d parsings evitados",
+                getDeduplicatedRequests(), jsonFlights, bytesFlights, seriesFlights, getDeduplicatedParses());
+    }
+
+    /**
+     * Agrupamento sobre um AsyncWeatherApiClient: as chamadas simultâneas iguais recebem o mesmo
+     * CompletableFuture em andamento (SingleFlight.execute), sem bloquear uma thread por chamada.
+     * Todas as formas de busca (JSON, bytes, série, bloqueantes ou não) passam por uma única
+     * requisição de bytes, então experimentos diferentes que compartilham esta instância são
+     * agrupados entre si. Por ser um AsyncWeatherApiClient, serve tanto ao AsyncExperiment
+     * quanto aos experimentos bloqueantes.
+     */
+    public static class Async extends AsyncWeatherApiClient {
+
+        private final AsyncWeatherApiClient delegate;
+        private final SingleFlight<WeatherRequestKey, ByteBuffer> flights = new SingleFlight<>();
+
+        public Async(AsyncWeatherApiClient delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public CompletableFuture<String> getWeatherDataAsync(double latitude, double longitude, LocalDate startDate, LocalDate endDate) {
+            return getWeatherBytesAsync(latitude, longitude, startDate, endDate)
+                    .thenApply(body -> StandardCharsets.UTF_8.decode(body).toString());
+        }
+
+        /**
+         * Cada chamada recebe uma visão própria (posição e limite) do corpo compartilhado,
+         * cujo conteúdo não deve ser alterado.
+         */
+        @Override
+        public CompletableFuture<ByteBuffer> getWeatherBytesAsync(double latitude, double longitude, LocalDate startDate, LocalDate endDate) {
+            WeatherRequestKey key = new WeatherRequestKey(latitude, longitude, startDate, endDate);
+            return flights.execute(key, () -> delegate.getWeatherBytesAsync(latitude, longitude, startDate, endDate))
+                    .thenApply(ByteBuffer::duplicate);
+        }
+
+        /**
+         * Versão bloqueante sobre a requisição agrupada, extraída pelo parser de streaming.
+         */
+        @Override
+        public boolean fetchTemperatures(double latitude, double longitude, LocalDate startDate, LocalDate endDate,
+                                         TemperatureSeries target) throws Exception {
+            ByteBuffer body;
+            try {
+                body = getWeatherBytesAsync(latitude, longitude, startDate, endDate).get();
+            } catch (ExecutionException e) {
+                throw unwrap(e.getCause());
+            }
+            return parseTemperatures(body, target);
+        }
+
+        @Override
+        public String getWeatherDataBatch(List<CapitalsData.Capital> locations, LocalDate startDate, LocalDate endDate) throws Exception {
+            return delegate.getWeatherDataBatch(locations, startDate, endDate);
+        }
+
+        @Override
+        public int fetchTemperaturesBatch(List<CapitalsData.Capital> locations, LocalDate startDate, LocalDate endDate,
+                                          TemperatureSeries[] targets) throws Exception {
+            return delegate.fetchTemperaturesBatch(locations, startDate, endDate, targets);
+        }
+
+        /**
+         * @return Requisições evitadas por terem sido agrupadas com outra em andamento.
+         */
+        public long getDeduplicatedRequests() {
+            return flights.getDeduplicated();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Agrupamento de requisições assíncronas: %d requisições evitadas (%s)",
+                    getDeduplicatedRequests(), flights);
+        }
+    }
+}
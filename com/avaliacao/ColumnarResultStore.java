@@ -0,0 +1,458 @@
+package com.avaliacao;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ResultStore em colunas de tipos primitivos.
+ * Cada localidade recebe um ordinal na primeira escrita com dados e cada dia do período é um ordinal
+ * a partir de firstDay; mínima, máxima e média ficam em três colunas double[], na posição
+ * (ordinal da localidade * dias + ordinal do dia). Um dia custa 24 bytes, em vez de uma
+ * entrada de mapa com LocalDate e DailyStats. Dias sem dados são NaN.
+ *
+ * As colunas são alocadas em segmentos de SEGMENT_LOCATIONS localidades, que nunca mudam
+ * de lugar: escritas de localidades diferentes não se sobrepõem e dispensam travas.
+ * Uma mesma localidade deve ser escrita por uma thread de cada vez, como nos experimentos.
+ *
+ * O conteúdo pode ser gravado em um snapshot binário (saveSnapshot) e mapeado de volta
+ * em memória sem parsing (mapSnapshot); um store mapeado é somente leitura.
+ */
+public class ColumnarResultStore extends ResultStore {
+
+    // Cabeçalho do snapshot: marca, versão, primeiro dia, dias e localidades
+    private static final int MAGIC = 0x43525331; // "CRS1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES + Long.BYTES + 2 * Integer.BYTES;
+    private static final int SEGMENT_LOCATIONS = 256;
+    // Valores por região mapeada (1 GiB): um MappedByteBuffer não passa de 2 GB
+    private static final int MAPPED_CHUNK_SHIFT = 27;
+
+    private final LocalDate firstDay;
+    private final int days;
+
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[SEGMENT_LOCATIONS];
+    private volatile int locationCount;
+
+    // Um segmento por SEGMENT_LOCATIONS localidades: {mínima, máxima, média}
+    private volatile double[][][] segments = new double[0][][];
+
+    // Colunas mapeadas de um snapshot (somente leitura); null em um store em memória
+    private final MappedColumn mappedMin;
+    private final MappedColumn mappedMax;
+    private final MappedColumn mappedMean;
+
+    /**
+     * Cria um store em memória para o período [firstDay, lastDay].
+     */
+    public ColumnarResultStore(LocalDate firstDay, LocalDate lastDay) {
+        this(firstDay, (int) (ChronoUnit.DAYS.between(firstDay, lastDay) + 1), null, null, null);
+    }
+
+    private ColumnarResultStore(LocalDate firstDay, int days, MappedColumn mappedMin, MappedColumn mappedMax, MappedColumn mappedMean) {
+        if (days < 1) {
+            throw new IllegalArgumentException("O período deve ter ao menos um dia: " + days);
+        }
+        this.firstDay = firstDay;
+        this.days = days;
+        this.mappedMin = mappedMin;
+        this.mappedMax = mappedMax;
+        this.mappedMean = mappedMean;
+    }
+
+    public LocalDate getFirstDay() { return firstDay; }
+    public LocalDate getLastDay() { return firstDay.plusDays(days - 1); }
+    public int getDays() { return days; }
+    public int getLocationCount() { return locationCount; }
+
+    public String getLocationName(int ordinal) {
+        return names[ordinal];
+    }
+
+    /**
+     * @return O ordinal da localidade, ou -1 se ela nunca recebeu dados.
+     */
+    public int ordinalOf(String location) {
+        Integer ordinal = ordinals.get(location);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * @return Se a localidade tem ao menos um dia com dados. Uma localidade com ordinal pode
+     * ter sido esvaziada depois (addCapitalData com um mapa vazio).
+     */
+    public boolean hasData(int ordinal) {
+        for (int day = 0; day < days; day++) {
+            if (!Double.isNaN(getMean(ordinal, day))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return O ordinal do dia no período, ou -1 se a data estiver fora dele.
+     */
+    public int dayOrdinal(LocalDate date) {
+        long day = ChronoUnit.DAYS.between(firstDay, date);
+        return day < 0 || day >= days ? -1 : (int) day;
+    }
+
+    /**
+     * Substitui os dados de uma localidade, como no ResultStore original.
+     * Um mapa vazio não registra a localidade; se ela já existia, seus dias são apagados.
+     */
+    @Override
+    public void addCapitalData(String capitalName, Map<LocalDate, WeatherDataProcessor.DailyStats> data) {
+        int location = data.isEmpty() ? ordinalOf(capitalName) : ordinalFor(capitalName);
+        if (location < 0) {
+            return;
+        }
+        double[][] segment = segmentOf(location);
+        int offset = (location % SEGMENT_LOCATIONS) * days;
+        for (double[] column : segment) {
+            Arrays.fill(column, offset, offset + days, Double.NaN);
+        }
+        write(location, data);
+    }
+
+    /**
+     * Acrescenta dias aos dados de uma localidade; nas colunas, acrescentar e substituir um dia são a mesma escrita.
+     */
+    @Override
+    public void mergeCapitalData(String capitalName, Map<LocalDate, WeatherDataProcessor.DailyStats> data) {
+        if (data.isEmpty()) {
+            return;
+        }
+        write(ordinalFor(capitalName), data);
+    }
+
+    private void write(int location, Map<LocalDate, WeatherDataProcessor.DailyStats> data) {
+        for (Map.Entry<LocalDate, WeatherDataProcessor.DailyStats> entry : data.entrySet()) {
+            int day = dayOrdinal(entry.getKey());
+            if (day < 0) {
+                throw new IllegalArgumentException("Data fora do período do store (" + firstDay + " a " + getLastDay() + "): " + entry.getKey());
+            }
+            WeatherDataProcessor.DailyStats stats = entry.getValue();
+            put(location, day, stats.getMin(), stats.getMax(), stats.getMean());
+        }
+    }
+
+    /**
+     * Escreve as estatísticas de um dia diretamente pelos ordinais, sem objetos intermediários.
+     */
+    public void put(int location, int day, double min, double max, double mean) {
+        if (mappedMean != null) {
+            throw new IllegalStateException("Store mapeado de um snapshot é somente leitura");
+        }
+        double[][] segment = segmentOf(location);
+        int index = (location % SEGMENT_LOCATIONS) * days + day;
+        segment[0][index] = min;
+        segment[1][index] = max;
+        segment[2][index] = mean;
+    }
+
+    public double getMin(int location, int day) {
+        return mappedMin != null ? mappedMin.get((long) location * days + day) : column(location, 0)[index(location, day)];
+    }
+
+    public double getMax(int location, int day) {
+        return mappedMax != null ? mappedMax.get((long) location * days + day) : column(location, 1)[index(location, day)];
+    }
+
+    public double getMean(int location, int day) {
+        return mappedMean != null ? mappedMean.get((long) location * days + day) : column(location, 2)[index(location, day)];
+    }
+
+    /**
+     * @return As estatísticas de um dia, ou null se não houver dados.
+     */
+    public WeatherDataProcessor.DailyStats getDailyStats(String location, LocalDate date) {
+        int ordinal = ordinalOf(location);
+        int day = dayOrdinal(date);
+        if (ordinal < 0 || day < 0 || Double.isNaN(getMean(ordinal, day))) {
+            return null;
+        }
+        return new WeatherDataProcessor.DailyStats(getMin(ordinal, day), getMax(ordinal, day), getMean(ordinal, day));
+    }
+
+    private double[] column(int location, int column) {
+        return segments[location / SEGMENT_LOCATIONS][column];
+    }
+
+    private int index(int location, int day) {
+        return (location % SEGMENT_LOCATIONS) * days + day;
+    }
+
+    /**
+     * Atribui um ordinal à localidade na primeira escrita. Só esse caso raro passa pela trava.
+     */
+    private int ordinalFor(String location) {
+        if (mappedMean != null) {
+            throw new IllegalStateException("Store mapeado de um snapshot é somente leitura");
+        }
+        Integer ordinal = ordinals.get(location);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        synchronized (this) {
+            ordinal = ordinals.get(location);
+            if (ordinal == null) {
+                ordinal = locationCount;
+                if (ordinal == names.length) {
+                    names = Arrays.copyOf(names, names.length * 2);
+                }
+                names[ordinal] = location;
+                ensureSegment(ordinal / SEGMENT_LOCATIONS);
+                locationCount = ordinal + 1;
+                ordinals.put(location, ordinal);
+            }
+            return ordinal;
+        }
+    }
+
+    private void ensureSegment(int segmentIndex) {
+        if (segmentIndex < segments.length) {
+            return;
+        }
+        double[][][] grown = Arrays.copyOf(segments, segmentIndex + 1);
+        for (int i = segments.length; i <= segmentIndex; i++) {
+            grown[i] = new double[3][SEGMENT_LOCATIONS * days];
+            for (double[] column : grown[i]) {
+                Arrays.fill(column, Double.NaN);
+            }
+        }
+        segments = grown;
+    }
+
+    private double[][] segmentOf(int location) {
+        return segments[location / SEGMENT_LOCATIONS];
+    }
+
+    /**
+     * Monta a visão em mapas do ResultStore original (usada para exibição); os dias sem dados são omitidos.
+     */
+    @Override
+    public Map<String, Map<LocalDate, WeatherDataProcessor.DailyStats>> getAllCapitalsData() {
+        Map<String, Map<LocalDate, WeatherDataProcessor.DailyStats>> allData = new LinkedHashMap<>();
+        for (int location = 0; location < locationCount; location++) {
+            Map<LocalDate, WeatherDataProcessor.DailyStats> daily = new LinkedHashMap<>();
+            for (int day = 0; day < days; day++) {
+                double mean = getMean(location, day);
+                if (!Double.isNaN(mean)) {
+                    daily.put(firstDay.plusDays(day), new WeatherDataProcessor.DailyStats(getMin(location, day), getMax(location, day), mean));
+                }
+            }
+            allData.put(names[location], daily);
+        }
+        return Collections.unmodifiableMap(allData);
+    }
+
+    @Override
+    public void clear() {
+        if (mappedMean != null) {
+            throw new IllegalStateException("Store mapeado de um snapshot é somente leitura");
+        }
+        super.clear();
+        synchronized (this) {
+            ordinals.clear();
+            names = new String[SEGMENT_LOCATIONS];
+            segments = new double[0][][];
+            locationCount = 0;
+        }
+    }
+
+    /**
+     * @return Bytes ocupados pelas colunas de valores.
+     */
+    public long columnBytes() {
+        return 3L * locationCount * days * Double.BYTES;
+    }
+
+    /**
+     * Copia para este store os dias com dados de outro store (por exemplo, um snapshot mapeado),
+     * associando as localidades pela chave com que foram gravadas: o id da localidade nos catálogos
+     * (ver LocationCatalog.id), único mesmo entre homônimas. Localidades sem dados não são registradas.
+     */
+    public void copyFrom(ColumnarResultStore other) {
+        for (int source = 0; source < other.getLocationCount(); source++) {
+            if (!other.hasData(source)) {
+                continue;
+            }
+            int target = ordinalFor(other.getLocationName(source));
+            for (int day = 0; day < other.getDays(); day++) {
+                double mean = other.getMean(source, day);
+                if (Double.isNaN(mean)) {
+                    continue;
+                }
+                int targetDay = dayOrdinal(other.getFirstDay().plusDays(day));
+                if (targetDay < 0) {
+                    throw new IllegalArgumentException("Snapshot com datas fora do período do store: " + other.getFirstDay().plusDays(day));
+                }
+                put(target, targetDay, other.getMin(source, day), other.getMax(source, day), mean);
+            }
+        }
+    }
+
+    /**
+     * Grava o snapshot: cabeçalho, tabela de nomes (tamanho + UTF-8), alinhamento em 8 bytes
+     * e as colunas de mínima, máxima e média, cada uma com locations * days valores.
+     * Localidades sem nenhum dia com dados ficam de fora.
+     */
+    public void saveSnapshot(Path file) throws IOException {
+        int[] saved = new int[locationCount];
+        int locations = 0;
+        for (int location = 0; location < saved.length; location++) {
+            if (hasData(location)) {
+                saved[locations++] = location;
+            }
+        }
+        byte[][] encodedNames = new byte[locations][];
+        long headerBytes = HEADER_BYTES;
+        for (int i = 0; i < locations; i++) {
+            encodedNames[i] = names[saved[i]].getBytes(StandardCharsets.UTF_8);
+            headerBytes += Integer.BYTES + encodedNames[i].length;
+        }
+        long columnsStart = align8(headerBytes);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate((int) columnsStart);
+            // O campo reservado mantém o primeiro dia (long) alinhado em 8 bytes
+            header.putInt(MAGIC).putInt(VERSION).putInt(0).putLong(firstDay.toEpochDay()).putInt(days).putInt(locations);
+            for (byte[] name : encodedNames) {
+                header.putInt(name.length).put(name);
+            }
+            header.position((int) columnsStart).flip();
+            writeFully(channel, header);
+
+            // Cada coluna é gravada por localidade, em blocos de 'days' valores
+            ByteBuffer block = ByteBuffer.allocate(days * Double.BYTES);
+            for (int column = 0; column < 3; column++) {
+                for (int i = 0; i < locations; i++) {
+                    int location = saved[i];
+                    block.clear();
+                    block.asDoubleBuffer().put(column(location, column), index(location, 0), days);
+                    writeFully(channel, block);
+                }
+            }
+        }
+    }
+
+    /**
+     * Mapeia um snapshot em memória. Os valores são lidos diretamente do arquivo mapeado,
+     * sem parsing nem cópia para o heap; só a tabela de nomes é decodificada.
+     * Cada coluna é mapeada em regiões próprias, com deslocamentos long, de modo que snapshots
+     * acima de 2 GB também podem ser abertos. Um arquivo truncado ou corrompido gera IOException.
+     */
+    public static ColumnarResultStore mapSnapshot(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            // Cabeçalho e tabela de nomes ficam no início do arquivo, antes das colunas
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, Integer.MAX_VALUE));
+            if (mapped.remaining() < HEADER_BYTES || mapped.getInt() != MAGIC || mapped.getInt() != VERSION) {
+                throw new IOException("Snapshot inválido: " + file);
+            }
+            mapped.getInt(); // Reservado
+            long epochDay = mapped.getLong();
+            int days = mapped.getInt();
+            int locations = mapped.getInt();
+            // Cada nome ocupa ao menos os 4 bytes do tamanho
+            if (days < 1 || locations < 0 || locations > mapped.remaining() / Integer.BYTES) {
+                throw new IOException("Snapshot corrompido (" + days + " dias, " + locations + " localidades): " + file);
+            }
+            LocalDate firstDay;
+            try {
+                firstDay = LocalDate.ofEpochDay(epochDay);
+                firstDay.plusDays(days - 1); // O último dia também precisa ser uma data válida
+            } catch (DateTimeException e) {
+                throw new IOException("Snapshot com período inválido: " + file, e);
+            }
+
+            String[] names = new String[Math.max(locations, 1)];
+            Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+            try {
+                for (int i = 0; i < locations; i++) {
+                    int length = mapped.getInt();
+                    if (length < 0 || length > mapped.remaining()) {
+                        throw new IOException("Snapshot corrompido (nome " + i + " com " + length + " bytes): " + file);
+                    }
+                    byte[] encoded = new byte[length];
+                    mapped.get(encoded);
+                    names[i] = new String(encoded, StandardCharsets.UTF_8);
+                    ordinals.put(names[i], i);
+                }
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Snapshot truncado na tabela de nomes: " + file, e);
+            }
+            long columnsStart = align8(mapped.position());
+            long columnValues = (long) locations * days;
+            if (size < columnsStart + 3 * columnValues * Double.BYTES) {
+                throw new IOException("Snapshot truncado: " + file);
+            }
+
+            MappedColumn[] columns = new MappedColumn[3];
+            for (int column = 0; column < 3; column++) {
+                columns[column] = MappedColumn.map(channel, columnsStart + column * columnValues * Double.BYTES, columnValues);
+            }
+            ColumnarResultStore store = new ColumnarResultStore(firstDay, days, columns[0], columns[1], columns[2]);
+            store.names = names;
+            store.ordinals.putAll(ordinals);
+            store.locationCount = locations;
+            return store;
+        }
+    }
+
+    /**
+     * Uma coluna de um snapshot, mapeada em regiões de até 2^MAPPED_CHUNK_SHIFT valores
+     * e endereçada por um índice long.
+     */
+    private static final class MappedColumn {
+        private static final long CHUNK_MASK = (1L << MAPPED_CHUNK_SHIFT) - 1;
+
+        private final DoubleBuffer[] chunks;
+
+        private MappedColumn(DoubleBuffer[] chunks) {
+            this.chunks = chunks;
+        }
+
+        static MappedColumn map(FileChannel channel, long start, long values) throws IOException {
+            DoubleBuffer[] chunks = new DoubleBuffer[(int) ((values + CHUNK_MASK) >>> MAPPED_CHUNK_SHIFT)];
+            for (int chunk = 0; chunk < chunks.length; chunk++) {
+                long first = (long) chunk << MAPPED_CHUNK_SHIFT;
+                long count = Math.min(CHUNK_MASK + 1, values - first);
+                chunks[chunk] = channel.map(FileChannel.MapMode.READ_ONLY, start + first * Double.BYTES, count * Double.BYTES).asDoubleBuffer();
+            }
+            return new MappedColumn(chunks);
+        }
+
+        double get(long index) {
+            return chunks[(int) (index >>> MAPPED_CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+        }
+    }
+
+    private static long align8(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
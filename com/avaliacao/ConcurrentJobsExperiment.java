@@ -0,0 +1,72 @@
+package com.avaliacao;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Executa vários experimentos ao mesmo tempo, como consumidores independentes das mesmas capitais
+ * (por exemplo, painéis diferentes atualizando na mesma hora). Quando os experimentos compartilham
+ * um CoalescingWeatherApiClient, as buscas iguais que se sobrepõem viram uma única requisição.
+ *
+ * Uma rodada termina quando todos os experimentos terminam. As latências das requisições de todos
+ * eles são somadas ao histograma deste experimento; se algum falhar, a rodada falha com o primeiro
+ * erro e os demais como suprimidos.
+ */
+public class ConcurrentJobsExperiment extends ExperimentRunner {
+
+    private final List<ExperimentRunner> jobs;
+
+    /**
+     * @param jobs Os experimentos executados em paralelo; devem gravar no mesmo resultStore.
+     */
+    public ConcurrentJobsExperiment(List<CapitalsData.Capital> capitals, ResultStore resultStore, LocalDate startDate, LocalDate endDate,
+                                    List<ExperimentRunner> jobs) {
+        super(capitals, resultStore, startDate, endDate);
+        this.jobs = List.copyOf(jobs);
+    }
+
+    @Override
+    public void runExperiment() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(jobs.size());
+        List<Future<?>> futures = new ArrayList<>(jobs.size());
+        try {
+            for (ExperimentRunner job : jobs) {
+                job.getRequestLatencies().reset();
+                futures.add(executor.submit(() -> {
+                    job.runExperiment();
+                    return null;
+                }));
+            }
+            Exception failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Exception cause = AsyncWeatherApiClient.unwrap(e.getCause());
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+            for (ExperimentRunner job : jobs) {
+                getRequestLatencies().add(job.getRequestLatencies());
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public List<ExperimentRunner> getJobs() {
+        return jobs;
+    }
+}
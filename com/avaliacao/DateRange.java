@@ -0,0 +1,71 @@
+package com.avaliacao;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Intervalo fechado de datas [start, end].
+ */
+public final class DateRange {
+
+    private final LocalDate start;
+    private final LocalDate end;
+
+    public DateRange(LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("Intervalo inválido: " + start + " a " + end);
+        }
+        this.start = start;
+        this.end = end;
+    }
+
+    public LocalDate getStart() { return start; }
+    public LocalDate getEnd() { return end; }
+
+    /**
+     * @return Quantidade de dias do intervalo, incluindo as duas pontas.
+     */
+    public long days() {
+        return ChronoUnit.DAYS.between(start, end) + 1;
+    }
+
+    /**
+     * Divide o intervalo em partes de no máximo maxDays dias.
+     */
+    public List<DateRange> split(int maxDays) {
+        if (maxDays < 1) {
+            throw new IllegalArgumentException("O tamanho da parte deve ser positivo: " + maxDays);
+        }
+        List<DateRange> parts = new ArrayList<>();
+        for (LocalDate from = start; !from.isAfter(end); from = from.plusDays(maxDays)) {
+            LocalDate to = from.plusDays(maxDays - 1);
+            parts.add(new DateRange(from, to.isAfter(end) ? end : to));
+        }
+        return parts;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DateRange)) {
+            return false;
+        }
+        DateRange other = (DateRange) o;
+        return start.equals(other.start) && end.equals(other.end);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return start + ".." + end;
+    }
+}
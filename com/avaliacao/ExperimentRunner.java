@@ -1,9 +1,14 @@
 package com.avaliacao;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.time.LocalDate;
-import java.util.LinkedHashMap; // <-- LINHA ADICIONADA
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Classe base abstrata que define a estrutura comum para todos os tipos de experimentos.
@@ -11,14 +16,25 @@ import java.util.Map;
  */
 public abstract class ExperimentRunner {
 
+    // Tamanho do buffer usado para exibir os resultados
+    private static final int DISPLAY_BUFFER_CHARS = 64 * 1024;
+
     protected final List<CapitalsData.Capital> capitals;
     protected final ResultStore resultStore;
     protected final LocalDate startDate;
     protected final LocalDate endDate;
 
     // Instâncias dos clientes de API e processadores para serem usados pelas subclasses
-    private final WeatherApiClient weatherApiClient = new WeatherApiClient();
-    private final WeatherDataProcessor dataProcessor = new WeatherDataProcessor();
+    private WeatherApiClient weatherApiClient = new WeatherApiClient();
+    private WeatherDataProcessor dataProcessor = new WeatherDataProcessor();
+
+    // Quando ativo, as respostas são lidas pelo parser de streaming em vez do org.json
+    private boolean streamingParser = false;
+    // Série reaproveitada por thread no modo de streaming, evitando alocar arrays a cada requisição
+    private final ThreadLocal<TemperatureSeries> seriesBuffers = ThreadLocal.withInitial(TemperatureSeries::new);
+
+    // Latência de cada requisição (busca e processamento), registrada por todas as implementações
+    private final LatencyHistogram requestLatencies = new LatencyHistogram();
 
     public ExperimentRunner(List<CapitalsData.Capital> capitals, ResultStore resultStore, LocalDate startDate, LocalDate endDate) {
         this.capitals = capitals;
@@ -37,10 +53,18 @@ public abstract class ExperimentRunner {
      * @return O tempo total de execução em milissegundos.
      */
     public long runAndMeasureTime() throws Exception {
-        long startTime = System.currentTimeMillis();
+        return TimeUnit.NANOSECONDS.toMillis(runAndMeasureNanos());
+    }
+
+    /**
+     * Mede o tempo de execução do método runExperiment com System.nanoTime,
+     * que é monotônico e não sofre ajustes do relógio do sistema.
+     * @return O tempo total de execução em nanossegundos.
+     */
+    public long runAndMeasureNanos() throws Exception {
+        long startTime = System.nanoTime();
         runExperiment();
-        long endTime = System.currentTimeMillis();
-        return endTime - startTime;
+        return System.nanoTime() - startTime;
     }
 
     /**
@@ -48,15 +72,167 @@ public abstract class ExperimentRunner {
      * @param capital A capital a ser processada.
      */
     protected void fetchDataAndProcess(CapitalsData.Capital capital) throws Exception {
-        // 1. Busca os dados climáticos da API
-        String jsonData = weatherApiClient.getWeatherData(capital.getLatitude(), capital.getLongitude(), startDate, endDate);
+        long start = System.nanoTime();
+        try {
+            if (streamingParser) {
+                // 1 e 2. Busca e extrai as temperaturas em streaming, direto para a série da thread
+                TemperatureSeries temperatures = temperatureBuffer();
+                weatherApiClient.fetchTemperatures(capital.getLatitude(), capital.getLongitude(), startDate, endDate, temperatures);
+                // 3 e 4. Processa e armazena
+                processAndStore(capital, temperatures);
+                return;
+            }
+            // 1. Busca os dados climáticos da API
+            String jsonData = weatherApiClient.getWeatherData(capital.getLatitude(), capital.getLongitude(), startDate, endDate);
+            // 2, 3 e 4. Extrai, processa e armazena
+            processAndStore(capital, jsonData);
+        } finally {
+            recordRequestLatency(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Etapas de CPU do fluxo, separadas da busca para poderem ser encadeadas
+     * em respostas assíncronas.
+     * @param capital A capital a que os dados pertencem.
+     * @param jsonData O JSON da resposta da API.
+     */
+    protected void processAndStore(CapitalsData.Capital capital, String jsonData) {
         // 2. Extrai la lista de temperaturas do JSON
         List<Double> temperatures = weatherApiClient.parseTemperatures(jsonData);
+        // 3 e 4. Calcula as estatísticas diárias e armazena
+        processAndStore(capital, temperatures);
+    }
+
+    /**
+     * Etapas de agregação e armazenamento para temperaturas já extraídas do JSON.
+     */
+    protected void processAndStore(CapitalsData.Capital capital, List<Double> temperatures) {
         // 3. Calcula as estatísticas diárias (min, max, média)
+        WeatherEvents.AggregateEvent event = new WeatherEvents.AggregateEvent();
+        event.begin();
+        long start = System.nanoTime();
         Map<LocalDate, WeatherDataProcessor.DailyStats> dailyStats = dataProcessor.processDailyTemperatures(temperatures, startDate);
+        recordAggregate(event, start, temperatures == null ? 0 : temperatures.size(), dailyStats.size());
         // 4. Armazena o resultado
+        storeResult(capital, dailyStats);
+    }
+
+    /**
+     * Etapas de agregação e armazenamento para temperaturas já extraídas em uma série primitiva.
+     */
+    protected void processAndStore(CapitalsData.Capital capital, TemperatureSeries temperatures) {
+        storeResult(capital, aggregate(temperatures, startDate));
+    }
+
+    /**
+     * Grava as estatísticas de uma capital no ResultStore. Subclasses podem descartar a escrita
+     * (ex.: tarefas de uma rodada já encerrada por tempo limite).
+     */
+    protected void storeResult(CapitalsData.Capital capital, Map<LocalDate, WeatherDataProcessor.DailyStats> dailyStats) {
         resultStore.addCapitalData(capital.getName(), dailyStats);
     }
+
+    /**
+     * Calcula as estatísticas diárias de uma série que começa em seriesStart (que pode ser
+     * diferente do início do experimento, quando só uma parte do período é buscada).
+     */
+    protected Map<LocalDate, WeatherDataProcessor.DailyStats> aggregate(TemperatureSeries temperatures, LocalDate seriesStart) {
+        WeatherEvents.AggregateEvent event = new WeatherEvents.AggregateEvent();
+        event.begin();
+        long start = System.nanoTime();
+        Map<LocalDate, WeatherDataProcessor.DailyStats> dailyStats = dataProcessor.processDailyTemperatures(temperatures, seriesStart);
+        recordAggregate(event, start, temperatures == null ? 0 : temperatures.size(), dailyStats.size());
+        return dailyStats;
+    }
+
+    /**
+     * Indica se o experimento reaproveita os resultados da rodada anterior.
+     * Nesse caso o BenchmarkHarness não limpa o ResultStore entre as rodadas.
+     */
+    public boolean isIncremental() {
+        return false;
+    }
+
+    /**
+     * @return A série reutilizável da thread atual, para o modo de streaming.
+     */
+    protected TemperatureSeries temperatureBuffer() {
+        return seriesBuffers.get();
+    }
+
+    /**
+     * Registra a latência de uma requisição. Implementações que não passam por
+     * fetchDataAndProcess (assíncrona, em lote, pipeline) chamam este método diretamente.
+     */
+    protected void recordRequestLatency(long nanos) {
+        requestLatencies.record(nanos);
+    }
+
+    /**
+     * Registra o tempo que uma tarefa passou na fila do executor antes de começar a rodar.
+     * @param submittedNanos O System.nanoTime() do momento da submissão.
+     */
+    protected void recordQueueWait(CapitalsData.Capital capital, long submittedNanos) {
+        long waited = System.nanoTime() - submittedNanos;
+        WeatherMetrics.get().record(WeatherMetrics.Phase.QUEUE_WAIT, waited);
+        WeatherEvents.QueueWaitEvent event = new WeatherEvents.QueueWaitEvent();
+        if (event.isEnabled()) {
+            event.capital = capital.getName();
+            event.waitTime = waited;
+            event.commit();
+        }
+    }
+
+    private static void recordAggregate(WeatherEvents.AggregateEvent event, long startNanos, int hours, int days) {
+        WeatherMetrics.get().record(WeatherMetrics.Phase.AGGREGATE, System.nanoTime() - startNanos);
+        if (event.shouldCommit()) {
+            event.hours = hours;
+            event.days = days;
+            event.commit();
+        }
+    }
+
+    /**
+     * @return O histograma das latências por requisição acumuladas desde o último reset.
+     */
+    public LatencyHistogram getRequestLatencies() {
+        return requestLatencies;
+    }
+
+    /**
+     * Ativa ou desativa o parser de streaming (sem String, sem org.json e sem boxing).
+     */
+    public void setStreamingParser(boolean streamingParser) {
+        this.streamingParser = streamingParser;
+    }
+
+    public boolean isStreamingParser() {
+        return this.streamingParser;
+    }
+
+    /**
+     * Define o cliente de API usado nas buscas, permitindo trocar o backend HTTP
+     * (por exemplo, pelo AsyncWeatherApiClient) sem alterar o experimento.
+     */
+    public void setWeatherApiClient(WeatherApiClient weatherApiClient) {
+        this.weatherApiClient = weatherApiClient;
+    }
+
+    public WeatherApiClient getWeatherApiClient() {
+        return this.weatherApiClient;
+    }
+
+    /**
+     * Define o processador usado na agregação diária (por exemplo, o VectorizedDataProcessor).
+     */
+    public void setDataProcessor(WeatherDataProcessor dataProcessor) {
+        this.dataProcessor = dataProcessor;
+    }
+
+    public WeatherDataProcessor getDataProcessor() {
+        return this.dataProcessor;
+    }
     
     public ResultStore getResultStore() {
         return this.resultStore;
@@ -64,22 +240,18 @@ public abstract class ExperimentRunner {
     
     /**
      * Exibe os resultados finais armazenados no ResultStore de forma formatada no console.
+     * As linhas são escritas em streaming por um buffer (ResultExporter), em vez de um printf por dia.
      */
     public void displayResults() {
         System.out.println("\n--- Resultados do Experimento ---");
-        Map<String, Map<LocalDate, WeatherDataProcessor.DailyStats>> allData = resultStore.getAllCapitalsData();
-
-        for (Map.Entry<String, Map<LocalDate, WeatherDataProcessor.DailyStats>> capitalEntry : allData.entrySet()) {
-            System.out.println("Capital: " + capitalEntry.getKey());
-            // A linha abaixo usa LinkedHashMap para manter a ordem, por isso o import é necessário.
-            Map<LocalDate, WeatherDataProcessor.DailyStats> sortedDailyData = new LinkedHashMap<>(capitalEntry.getValue());
-            
-            for (Map.Entry<LocalDate, WeatherDataProcessor.DailyStats> dailyEntry : sortedDailyData.entrySet()) {
-                WeatherDataProcessor.DailyStats stats = dailyEntry.getValue();
-                System.out.printf("  Data: %s, Média: %.2f, Mínima: %.2f, Máxima: %.2f\n",
-                        dailyEntry.getKey(), stats.getMean(), stats.getMin(), stats.getMax());
-            }
+        // O System.out não é fechado; o buffer só é esvaziado no final
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, Charset.defaultCharset()), DISPLAY_BUFFER_CHARS);
+        try {
+            ResultExporter.writeText(resultStore, out);
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("Erro ao exibir os resultados: " + e.getMessage());
         }
         System.out.println("----------------------------------");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,165 @@
+package com.avaliacao;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Acompanha uma requisição HTTP do início ao fim do corpo, medindo cada fase
+ * (DNS, conexão, primeiro byte, download) no WeatherMetrics e em um evento JFR.
+ * Cada fase é o tempo desde a marca anterior; a requisição termina quando o corpo é fechado
+ * ou quando ocorre uma falha.
+ */
+final class FetchTrace {
+
+    // Medição do DNS à parte, com uma resolução extra antes da conexão (-Dweather.trace.dns=true)
+    private static final boolean TRACE_DNS = Boolean.getBoolean("weather.trace.dns");
+
+    private final WeatherMetrics metrics = WeatherMetrics.get();
+    private final WeatherEvents.FetchEvent event = new WeatherEvents.FetchEvent();
+    private final long startNanos;
+    private long lastMark;
+    private long bytesRead;
+    private boolean finished;
+
+    private FetchTrace(String url) {
+        event.url = url;
+        event.begin();
+        metrics.requestStarted();
+        startNanos = System.nanoTime();
+        lastMark = startNanos;
+    }
+
+    static FetchTrace start(String url) {
+        return new FetchTrace(url);
+    }
+
+    /**
+     * Indica se o DNS deve ser medido à parte: com -Dweather.trace.dns=true ou durante uma gravação JFR
+     * com o evento de requisição ativo. Fora disso, o DNS fica incluído no tempo de conexão, sem a
+     * resolução extra no caminho medido.
+     */
+    boolean tracesDns() {
+        return TRACE_DNS || event.isEnabled();
+    }
+
+    /**
+     * Encerra a fase atual, registrando o tempo desde a marca anterior.
+     */
+    void mark(WeatherMetrics.Phase phase) {
+        long now = System.nanoTime();
+        long elapsed = now - lastMark;
+        lastMark = now;
+        metrics.record(phase, elapsed);
+        switch (phase) {
+            case DNS:
+                event.dnsTime = elapsed;
+                break;
+            case CONNECT:
+                event.connectTime = elapsed;
+                break;
+            case TIME_TO_FIRST_BYTE:
+                event.timeToFirstByte = elapsed;
+                break;
+            case DOWNLOAD:
+                event.downloadTime = elapsed;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Registra o status recebido nos cabeçalhos da resposta.
+     */
+    void status(int statusCode) {
+        event.statusCode = statusCode;
+    }
+
+    /**
+     * Envolve o corpo da resposta: conta os bytes lidos e encerra a requisição quando o stream é fechado.
+     */
+    InputStream body(InputStream body) {
+        return new FilterInputStream(body) {
+            @Override
+            public int read() throws IOException {
+                try {
+                    int b = super.read();
+                    if (b >= 0) {
+                        bytesRead++;
+                    }
+                    return b;
+                } catch (IOException e) {
+                    fail(e);
+                    throw e;
+                }
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                try {
+                    int n = super.read(buffer, offset, length);
+                    if (n > 0) {
+                        bytesRead += n;
+                    }
+                    return n;
+                } catch (IOException e) {
+                    fail(e);
+                    throw e;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    succeed(bytesRead);
+                }
+            }
+        };
+    }
+
+    /**
+     * Encerra a requisição com sucesso, com o corpo já lido por completo.
+     */
+    void succeed(long bodyBytes) {
+        if (finished) {
+            return;
+        }
+        mark(WeatherMetrics.Phase.DOWNLOAD);
+        bytesRead = bodyBytes;
+        finish(null);
+    }
+
+    /**
+     * Encerra a requisição com falha: status HTTP diferente de 200 ou erro de E/S.
+     */
+    void fail(Throwable error) {
+        if (finished) {
+            return;
+        }
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        String reason = error instanceof HttpStatusException
+                ? String.valueOf(((HttpStatusException) error).getStatusCode())
+                : error.getClass().getSimpleName();
+        metrics.recordError(reason);
+        finish(reason);
+    }
+
+    private void finish(String error) {
+        finished = true;
+        metrics.requestFinished();
+        metrics.addBytesRead(bytesRead);
+        metrics.record(WeatherMetrics.Phase.FETCH, System.nanoTime() - startNanos);
+        if (event.shouldCommit()) {
+            event.bytesRead = bytesRead;
+            event.error = error;
+            event.commit();
+        }
+    }
+}
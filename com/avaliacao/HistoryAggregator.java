@@ -0,0 +1,149 @@
+package com.avaliacao;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Agregação incremental de históricos longos.
+ * Cada parte do período (por exemplo, um trimestre) é dobrada nas estatísticas diárias,
+ * mensais e anuais assim que chega, e a série horária pode ser descartada em seguida:
+ * a memória depende do tamanho da parte, não do tamanho do histórico.
+ * As partes de uma mesma localidade podem chegar em qualquer ordem e de várias threads.
+ */
+public class HistoryAggregator {
+
+    /**
+     * Mínima, máxima, soma e quantidade de leituras de um intervalo (dia, mês ou ano).
+     * A média é calculada sobre as leituras horárias, não sobre as médias diárias.
+     */
+    public static class Aggregate {
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double sum;
+        private long count;
+
+        void add(double value) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+            count++;
+        }
+
+        void merge(Aggregate other) {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            sum += other.sum;
+            count += other.count;
+        }
+
+        Aggregate copy() {
+            Aggregate copy = new Aggregate();
+            copy.merge(this);
+            return copy;
+        }
+
+        public double getMin() { return min; }
+        public double getMax() { return max; }
+        public double getMean() { return count == 0 ? Double.NaN : sum / count; }
+        public long getCount() { return count; }
+
+        public WeatherDataProcessor.DailyStats toDailyStats() {
+            return new WeatherDataProcessor.DailyStats(min, max, getMean());
+        }
+    }
+
+    /**
+     * Estatísticas mensais e anuais de uma localidade.
+     */
+    private static class LocationHistory {
+        private final Map<YearMonth, Aggregate> monthly = new TreeMap<>();
+        private final Map<Integer, Aggregate> yearly = new TreeMap<>();
+    }
+
+    private final Map<String, LocationHistory> histories = new ConcurrentHashMap<>();
+
+    /**
+     * Dobra uma parte do histórico de uma localidade.
+     * @param location O nome da localidade.
+     * @param chunkStart A data da primeira leitura da série (a série começa à meia-noite).
+     * @param hourlyTemperatures As leituras horárias da parte (nulos como NaN).
+     * @return As estatísticas diárias da parte, para armazenamento no ResultStore.
+     */
+    public Map<LocalDate, WeatherDataProcessor.DailyStats> fold(String location, LocalDate chunkStart,
+                                                                TemperatureSeries hourlyTemperatures) {
+        double[] values = hourlyTemperatures.values();
+        int size = hourlyTemperatures.size();
+        int days = (size + 23) / 24;
+
+        // A parte é processada sem trava; só a junção nos acumuladores da localidade é sincronizada
+        Map<LocalDate, WeatherDataProcessor.DailyStats> daily = new LinkedHashMap<>();
+        Map<YearMonth, Aggregate> monthly = new TreeMap<>();
+        for (int day = 0; day < days; day++) {
+            Aggregate dayAggregate = new Aggregate();
+            int end = Math.min(day * 24 + 24, size);
+            for (int i = day * 24; i < end; i++) {
+                double value = values[i];
+                if (value == value) {
+                    dayAggregate.add(value);
+                }
+            }
+            if (dayAggregate.count == 0) {
+                continue;
+            }
+            LocalDate date = chunkStart.plusDays(day);
+            daily.put(date, dayAggregate.toDailyStats());
+            monthly.computeIfAbsent(YearMonth.from(date), m -> new Aggregate()).merge(dayAggregate);
+        }
+
+        LocationHistory history = histories.computeIfAbsent(location, l -> new LocationHistory());
+        synchronized (history) {
+            for (Map.Entry<YearMonth, Aggregate> entry : monthly.entrySet()) {
+                history.monthly.computeIfAbsent(entry.getKey(), m -> new Aggregate()).merge(entry.getValue());
+                history.yearly.computeIfAbsent(entry.getKey().getYear(), y -> new Aggregate()).merge(entry.getValue());
+            }
+        }
+        return daily;
+    }
+
+    public Set<String> getLocations() {
+        return Collections.unmodifiableSet(histories.keySet());
+    }
+
+    /**
+     * @return Uma cópia das estatísticas mensais da localidade, em ordem cronológica.
+     */
+    public Map<YearMonth, Aggregate> getMonthly(String location) {
+        LocationHistory history = histories.get(location);
+        Map<YearMonth, Aggregate> copy = new TreeMap<>();
+        if (history != null) {
+            synchronized (history) {
+                history.monthly.forEach((month, aggregate) -> copy.put(month, aggregate.copy()));
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * @return Uma cópia das estatísticas anuais da localidade, em ordem cronológica.
+     */
+    public Map<Integer, Aggregate> getYearly(String location) {
+        LocationHistory history = histories.get(location);
+        Map<Integer, Aggregate> copy = new TreeMap<>();
+        if (history != null) {
+            synchronized (history) {
+                history.yearly.forEach((year, aggregate) -> copy.put(year, aggregate.copy()));
+            }
+        }
+        return copy;
+    }
+
+    public void clear() {
+        histories.clear();
+    }
+}
@@ -0,0 +1,121 @@
+package com.avaliacao;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Experimento para períodos longos (vários anos).
+ * O período de cada capital é dividido em partes de chunkDays dias, buscadas em paralelo;
+ * cada parte é lida em streaming para a série da thread e dobrada no HistoryAggregator
+ * (estatísticas diárias, mensais e anuais) assim que chega. Nenhuma série horária do
+ * período completo é mantida em memória.
+ */
+public class HistoryExperiment extends ExperimentRunner {
+
+    private final int chunkDays;
+    private final int numThreads;
+    private final HistoryAggregator aggregator = new HistoryAggregator();
+
+    public HistoryExperiment(List<CapitalsData.Capital> capitals, ResultStore resultStore, LocalDate startDate, LocalDate endDate,
+                             int chunkDays, int numThreads) {
+        super(capitals, resultStore, startDate, endDate);
+        if (chunkDays < 1) {
+            throw new IllegalArgumentException("O tamanho da parte deve ser positivo: " + chunkDays);
+        }
+        this.chunkDays = chunkDays;
+        this.numThreads = numThreads;
+    }
+
+    public HistoryAggregator getAggregator() {
+        return aggregator;
+    }
+
+    /**
+     * Submete uma tarefa por (capital, parte), com no máximo 2 tarefas por thread aguardando na fila.
+     */
+    @Override
+    public void runExperiment() throws InterruptedException {
+        aggregator.clear();
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        Semaphore pending = new Semaphore(numThreads * 2);
+
+        try {
+            for (CapitalsData.Capital capital : capitals) {
+                for (LocalDate chunkStart = startDate; !chunkStart.isAfter(endDate); chunkStart = chunkStart.plusDays(chunkDays)) {
+                    LocalDate from = chunkStart;
+                    LocalDate to = min(chunkStart.plusDays(chunkDays - 1), endDate);
+                    pending.acquire();
+                    long submitted = System.nanoTime();
+                    executor.submit(() -> {
+                        recordQueueWait(capital, submitted);
+                        try {
+                            fetchChunkAndFold(capital, from, to);
+                        } catch (Exception e) {
+                            System.err.println("Erro ao processar " + capital.getName() + " de " + from + " a " + to + ": " + e.getMessage());
+                        } finally {
+                            pending.release();
+                        }
+                    });
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        executor.awaitTermination(1, TimeUnit.HOURS);
+    }
+
+    /**
+     * Busca uma parte do período e a dobra nos agregados da capital.
+     * Usa sempre o parser de streaming, pois a posição das leituras nulas define o dia de cada hora.
+     */
+    protected void fetchChunkAndFold(CapitalsData.Capital capital, LocalDate from, LocalDate to) throws Exception {
+        long start = System.nanoTime();
+        try {
+            TemperatureSeries temperatures = temperatureBuffer();
+            boolean found = getWeatherApiClient().fetchTemperatures(capital.getLatitude(), capital.getLongitude(), from, to, temperatures);
+            if (!found) {
+                System.err.println("Atenção: A resposta da API não contém dados 'hourly' para " + capital.getName() + " de " + from + " a " + to);
+                return;
+            }
+            Map<LocalDate, WeatherDataProcessor.DailyStats> daily = aggregator.fold(capital.getName(), from, temperatures);
+            resultStore.mergeCapitalData(capital.getName(), daily);
+        } finally {
+            recordRequestLatency(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @return Quantidade de partes por capital.
+     */
+    public long chunksPerLocation() {
+        long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        return (days + chunkDays - 1) / chunkDays;
+    }
+
+    /**
+     * Resumo anual (média, mínima e máxima) de cada capital.
+     */
+    public String yearlyReport() {
+        StringBuilder report = new StringBuilder();
+        for (String location : new TreeSet<>(aggregator.getLocations())) {
+            report.append("Capital: ").append(location).append('\n');
+            for (Map.Entry<Integer, HistoryAggregator.Aggregate> entry : aggregator.getYearly(location).entrySet()) {
+                HistoryAggregator.Aggregate year = entry.getValue();
+                report.append(String.format("  Ano: %d, Média: %.2f, Mínima: %.2f, Máxima: %.2f\n",
+                        entry.getKey(), year.getMean(), year.getMin(), year.getMax()));
+            }
+        }
+        return report.toString();
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,36 @@
+package com.avaliacao;
+
+/**
+ * Erro lançado quando a API responde com um status HTTP diferente de 200.
+ * Guarda o código para que os chamadores possam distinguir limitação de taxa
+ * (429, 503) de outros erros. A mensagem é a mesma usada antes desta classe existir.
+ */
+public class HttpStatusException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    public HttpStatusException(int statusCode, String url) {
+        super("HttpResponseCode: " + statusCode + " for URL " + url);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return true se o servidor sinalizou sobrecarga ou limitação de taxa (429 ou 503).
+     */
+    public boolean isThrottling() {
+        return statusCode == 429 || statusCode == 503;
+    }
+
+    /**
+     * @return true para erros em que repetir a requisição pode dar certo (429 e 5xx).
+     */
+    public boolean isRetryable() {
+        return statusCode == 429 || statusCode >= 500;
+    }
+}
@@ -0,0 +1,132 @@
+package com.avaliacao;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Experimento incremental: em vez de buscar o período completo em toda rodada, consulta a
+ * cobertura registrada no ResultStore e busca apenas os dias que faltam e os dias recentes
+ * desatualizados (a API revisa os últimos dias depois de publicá-los).
+ * Os novos dias são unidos aos resultados existentes, por isso o ResultStore não é limpo entre rodadas.
+ */
+public class IncrementalExperiment extends ExperimentRunner {
+
+    // Dias recentes que ainda podem ser revisados pela API e quanto tempo uma busca deles continua válida
+    private static final int DEFAULT_RECENT_DAYS = 5;
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofHours(6);
+    // Maior intervalo buscado em uma única requisição
+    private static final int MAX_REQUEST_DAYS = 92;
+
+    private final int numThreads;
+    private final int recentDays;
+    private final Duration maxAge;
+    private final Clock clock;
+
+    // Requisições e dias buscados na última rodada
+    private final AtomicInteger lastRequests = new AtomicInteger();
+    private final AtomicLong lastDaysFetched = new AtomicLong();
+
+    public IncrementalExperiment(List<CapitalsData.Capital> capitals, ResultStore resultStore, LocalDate startDate, LocalDate endDate,
+                                 int numThreads) {
+        this(capitals, resultStore, startDate, endDate, numThreads, DEFAULT_RECENT_DAYS, DEFAULT_MAX_AGE, Clock.systemUTC());
+    }
+
+    /**
+     * @param recentDays Quantidade de dias até hoje considerados recentes (sujeitos a revisão).
+     * @param maxAge Idade máxima de uma busca de dias recentes antes de ser refeita.
+     * @param clock Relógio usado para "hoje" e para o instante das buscas.
+     */
+    public IncrementalExperiment(List<CapitalsData.Capital> capitals, ResultStore resultStore, LocalDate startDate, LocalDate endDate,
+                                 int numThreads, int recentDays, Duration maxAge, Clock clock) {
+        super(capitals, resultStore, startDate, endDate);
+        this.numThreads = numThreads;
+        this.recentDays = recentDays;
+        this.maxAge = maxAge;
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean isIncremental() {
+        return true;
+    }
+
+    /**
+     * Calcula as lacunas de cada capital e submete uma tarefa por intervalo a buscar.
+     */
+    @Override
+    public void runExperiment() throws InterruptedException {
+        lastRequests.set(0);
+        lastDaysFetched.set(0);
+        Instant now = clock.instant();
+        LocalDate staleFrom = LocalDate.now(clock).minusDays(recentDays);
+        Instant fetchedBefore = now.minus(maxAge);
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        for (CapitalsData.Capital capital : capitals) {
+            List<DateRange> missing = resultStore.findMissing(capital.getName(), startDate, endDate, staleFrom, fetchedBefore);
+            for (DateRange gap : missing) {
+                for (DateRange range : gap.split(MAX_REQUEST_DAYS)) {
+                    executor.submit(() -> {
+                        try {
+                            fetchRangeAndMerge(capital, range);
+                        } catch (Exception e) {
+                            System.err.println("Erro ao processar " + capital.getName() + " (" + range + "): " + e.getMessage());
+                        }
+                    });
+                }
+            }
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+    }
+
+    /**
+     * Busca um intervalo, une os dias aos resultados da capital e registra a cobertura.
+     * A cobertura só é registrada depois que os dados foram armazenados, para que uma falha
+     * deixe o intervalo pendente para a próxima rodada.
+     */
+    protected void fetchRangeAndMerge(CapitalsData.Capital capital, DateRange range) throws Exception {
+        long start = System.nanoTime();
+        try {
+            Instant fetchedAt = clock.instant();
+            TemperatureSeries temperatures = temperatureBuffer();
+            lastRequests.incrementAndGet();
+            boolean found = getWeatherApiClient().fetchTemperatures(capital.getLatitude(), capital.getLongitude(),
+                    range.getStart(), range.getEnd(), temperatures);
+            if (!found) {
+                System.err.println("Atenção: A resposta da API não contém dados 'hourly' para " + capital.getName() + " (" + range + ")");
+                return;
+            }
+            Map<LocalDate, WeatherDataProcessor.DailyStats> dailyStats = aggregate(temperatures, range.getStart());
+            resultStore.mergeCapitalData(capital.getName(), dailyStats);
+            resultStore.markCovered(capital.getName(), range.getStart(), range.getEnd(), fetchedAt);
+            lastDaysFetched.addAndGet(range.days());
+        } finally {
+            recordRequestLatency(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @return Requisições feitas na última rodada.
+     */
+    public int getLastRequests() {
+        return lastRequests.get();
+    }
+
+    /**
+     * @return Dias buscados na última rodada.
+     */
+    public long getLastDaysFetched() {
+        return lastDaysFetched.get();
+    }
+}
@@ -0,0 +1,132 @@
+package com.avaliacao;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latências thread-safe, com buckets log-lineares.
+ * Cada potência de 2 (em microssegundos) é dividida em 16 sub-buckets, o que mantém o erro
+ * relativo dos percentis abaixo de ~6% com memória fixa, independentemente do número de amostras.
+ * Contagem, soma, mínimo e máximo são exatos.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Valores de 0 a 2^40 µs (cerca de 12 dias) cabem nos buckets
+    private static final int MAGNITUDES = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(MAGNITUDES * SUB_BUCKETS + SUB_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumNanos = new AtomicLong();
+    private final AtomicLong minNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Registra uma amostra de latência.
+     * @param nanos A latência medida com System.nanoTime.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketIndex(value / 1_000));
+        count.incrementAndGet();
+        sumNanos.addAndGet(value);
+        minNanos.accumulateAndGet(value, Math::min);
+        maxNanos.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Índice do bucket: valores menores que 16 µs têm um bucket cada; acima disso,
+     * a magnitude é a posição do bit mais alto e os 4 bits seguintes escolhem o sub-bucket.
+     */
+    private static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int magnitude = Math.min(63 - Long.numberOfLeadingZeros(micros), MAGNITUDES + SUB_BUCKET_BITS - 1);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) ((micros >>> shift) & (SUB_BUCKETS - 1));
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Maior valor (em µs) coberto pelo bucket; usado como estimativa dos percentis.
+     */
+    private static long bucketUpperMicros(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * @param percentile O percentil desejado, entre 0 e 100.
+     * @return A latência do percentil em nanossegundos (limite superior do bucket, sem passar do máximo).
+     */
+    public long getPercentileNanos(double percentile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(bucketUpperMicros(i) * 1_000 + 999, getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    public long getCount() { return count.get(); }
+    public long getMaxNanos() { return maxNanos.get(); }
+
+    public long getMinNanos() {
+        long min = minNanos.get();
+        return min == Long.MAX_VALUE ? 0 : min;
+    }
+
+    public double getMeanNanos() {
+        long total = count.get();
+        return total == 0 ? 0.0 : (double) sumNanos.get() / total;
+    }
+
+    /**
+     * Soma as amostras de outro histograma a este (ex.: as latências de vários experimentos simultâneos).
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < buckets.length(); i++) {
+            long n = other.buckets.get(i);
+            if (n != 0) {
+                buckets.addAndGet(i, n);
+            }
+        }
+        count.addAndGet(other.count.get());
+        sumNanos.addAndGet(other.sumNanos.get());
+        minNanos.accumulateAndGet(other.minNanos.get(), Math::min);
+        maxNanos.accumulateAndGet(other.maxNanos.get(), Math::max);
+    }
+
+    /**
+     * Zera todas as amostras.
+     */
+    public void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        sumNanos.set(0);
+        minNanos.set(Long.MAX_VALUE);
+        maxNanos.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d p50=%.1f ms p90=%.1f ms p99=%.1f ms máx=%.1f ms",
+                getCount(), getPercentileNanos(50) / 1e6, getPercentileNanos(90) / 1e6,
+                getPercentileNanos(99) / 1e6, getMaxNanos() / 1e6);
+    }
+}
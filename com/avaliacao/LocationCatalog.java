@@ -0,0 +1,477 @@
+package com.avaliacao;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Catálogo de localidades em estrutura de arrays (struct-of-arrays): latitudes e longitudes em
+ * double[] e nomes em uma tabela de strings sem repetição, referenciada por índice.
+ * Permite trabalhar com catálogos grandes (todos os municípios, grades com centenas de milhares
+ * de pontos) sem criar um objeto Capital por localidade; os objetos só são criados por lote,
+ * em Chunk.toCapitals().
+ *
+ * Formatos aceitos:
+ * <ul>
+ *   <li>CSV: "nome,latitude,longitude" ou "latitude,longitude" (separador ',' ou ';',
+ *       cabeçalho opcional, nomes entre aspas podem conter o separador);</li>
+ *   <li>binário (.bin): gravado por saveBinary e lido via memory-mapping.</li>
+ * </ul>
+ */
+public class LocationCatalog {
+
+    // Cabeçalho do arquivo binário: marca, versão, quantidade de localidades e de nomes distintos
+    private static final int MAGIC = 0x4C4F4331; // "LOC1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES;
+
+    private final int size;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] nameIds;
+    private final String[] names;
+    // Para cada nome da tabela, se ele é usado em coordenadas diferentes; calculado no primeiro id()
+    private volatile boolean[] repeatedNames;
+
+    private LocationCatalog(int size, double[] latitudes, double[] longitudes, int[] nameIds, String[] names) {
+        this.size = size;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.nameIds = nameIds;
+        this.names = names;
+    }
+
+    /**
+     * Monta um catálogo incrementalmente; os arrays crescem por duplicação e são ajustados em build().
+     */
+    public static class Builder {
+        private int size;
+        private double[] latitudes;
+        private double[] longitudes;
+        private int[] nameIds;
+        private final List<String> names = new ArrayList<>();
+        private final Map<String, Integer> nameIndex = new HashMap<>();
+
+        public Builder() {
+            this(1024);
+        }
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            latitudes = new double[capacity];
+            longitudes = new double[capacity];
+            nameIds = new int[capacity];
+        }
+
+        /**
+         * Adiciona uma localidade. Nomes repetidos são armazenados uma única vez.
+         * @param name O nome, ou null/vazio para pontos sem nome (ex.: grade).
+         */
+        public Builder add(String name, double latitude, double longitude) {
+            if (size == latitudes.length) {
+                int capacity = size * 2;
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+                nameIds = Arrays.copyOf(nameIds, capacity);
+            }
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            nameIds[size] = internName(name);
+            size++;
+            return this;
+        }
+
+        private int internName(String name) {
+            if (name == null || name.isEmpty()) {
+                return -1;
+            }
+            Integer id = nameIndex.get(name);
+            if (id == null) {
+                id = names.size();
+                names.add(name);
+                nameIndex.put(name, id);
+            }
+            return id;
+        }
+
+        public LocationCatalog build() {
+            return new LocationCatalog(size,
+                    Arrays.copyOf(latitudes, size),
+                    Arrays.copyOf(longitudes, size),
+                    Arrays.copyOf(nameIds, size),
+                    names.toArray(new String[0]));
+        }
+    }
+
+    /**
+     * Uma fatia do catálogo: um intervalo de posições em uma ordem de percurso
+     * (a ordem original ou a ordem espacial).
+     */
+    public static class Chunk {
+        private final LocationCatalog catalog;
+        private final int[] order;
+        private final int from;
+        private final int to;
+
+        private Chunk(LocationCatalog catalog, int[] order, int from, int to) {
+            this.catalog = catalog;
+            this.order = order;
+            this.from = from;
+            this.to = to;
+        }
+
+        public int size() {
+            return to - from;
+        }
+
+        /**
+         * @return A posição no catálogo do i-ésimo elemento da fatia.
+         */
+        public int index(int i) {
+            return order == null ? from + i : order[from + i];
+        }
+
+        public String name(int i) { return catalog.name(index(i)); }
+        public double latitude(int i) { return catalog.latitude(index(i)); }
+        public double longitude(int i) { return catalog.longitude(index(i)); }
+
+        /**
+         * Cria os objetos Capital apenas desta fatia, para uso com os experimentos existentes.
+         */
+        public List<CapitalsData.Capital> toCapitals() {
+            List<CapitalsData.Capital> capitals = new ArrayList<>(size());
+            for (int i = 0; i < size(); i++) {
+                capitals.add(catalog.capital(index(i)));
+            }
+            return capitals;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double latitude(int index) {
+        return latitudes[index];
+    }
+
+    public double longitude(int index) {
+        return longitudes[index];
+    }
+
+    /**
+     * @return O nome da localidade ou, para pontos sem nome, as coordenadas formatadas.
+     */
+    public String name(int index) {
+        int id = nameIds[index];
+        if (id < 0) {
+            return String.format(Locale.ROOT, "%.4f,%.4f", latitudes[index], longitudes[index]);
+        }
+        return names[id];
+    }
+
+    /**
+     * @return O identificador da localidade, único no catálogo e estável entre execuções: o nome ou, quando
+     * o mesmo nome aparece em coordenadas diferentes (ex.: os vários municípios "Bom Jesus"), o nome seguido
+     * das coordenadas na precisão da URL. É a chave dos resultados no ResultStore.
+     */
+    public String id(int index) {
+        int id = nameIds[index];
+        if (id < 0 || !repeatedNames()[id]) {
+            return name(index);
+        }
+        return String.format(Locale.ROOT, "%s (%.4f,%.4f)", names[id], latitudes[index], longitudes[index]);
+    }
+
+    private boolean[] repeatedNames() {
+        boolean[] repeated = repeatedNames;
+        if (repeated == null) {
+            repeated = new boolean[names.length];
+            long[] firstLatitudes = new long[names.length];
+            long[] firstLongitudes = new long[names.length];
+            boolean[] seen = new boolean[names.length];
+            for (int i = 0; i < size; i++) {
+                int id = nameIds[i];
+                if (id < 0) {
+                    continue;
+                }
+                long latitude = Math.round(latitudes[i] * 10_000);
+                long longitude = Math.round(longitudes[i] * 10_000);
+                if (!seen[id]) {
+                    seen[id] = true;
+                    firstLatitudes[id] = latitude;
+                    firstLongitudes[id] = longitude;
+                } else if (firstLatitudes[id] != latitude || firstLongitudes[id] != longitude) {
+                    repeated[id] = true;
+                }
+            }
+            repeatedNames = repeated;
+        }
+        return repeated;
+    }
+
+    /**
+     * @return Quantidade de ids distintos, isto é, de localidades com resultados próprios
+     * (linhas repetidas com o mesmo nome e as mesmas coordenadas contam uma vez).
+     */
+    public int distinctIds() {
+        Set<String> ids = new HashSet<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            ids.add(id(i));
+        }
+        return ids.size();
+    }
+
+    /**
+     * @return Quantidade de nomes distintos na tabela de strings.
+     */
+    public int distinctNames() {
+        return names.length;
+    }
+
+    /**
+     * @return A localidade como Capital, com o id no lugar do nome, para que os resultados de
+     * localidades homônimas não se sobrescrevam.
+     */
+    public CapitalsData.Capital capital(int index) {
+        return new CapitalsData.Capital(id(index), latitudes[index], longitudes[index]);
+    }
+
+    /**
+     * Divide o catálogo em fatias consecutivas, na ordem original.
+     */
+    public List<Chunk> chunks(int chunkSize) {
+        return chunks(null, chunkSize);
+    }
+
+    /**
+     * Divide o catálogo em fatias de localidades próximas: os pontos são ordenados pela célula
+     * de uma grade de cellDegrees graus (linhas percorridas em zigue-zague, para que células
+     * vizinhas fiquem em sequência) e depois fatiados nessa ordem.
+     */
+    public List<Chunk> spatialChunks(int chunkSize, double cellDegrees) {
+        return chunks(spatialOrder(cellDegrees), chunkSize);
+    }
+
+    private List<Chunk> chunks(int[] order, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("O tamanho da fatia deve ser positivo: " + chunkSize);
+        }
+        List<Chunk> chunks = new ArrayList<>((size + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < size; from += chunkSize) {
+            chunks.add(new Chunk(this, order, from, Math.min(from + chunkSize, size)));
+        }
+        return chunks;
+    }
+
+    /**
+     * @return As posições do catálogo ordenadas por célula da grade.
+     */
+    int[] spatialOrder(double cellDegrees) {
+        if (!(cellDegrees > 0)) {
+            throw new IllegalArgumentException("O tamanho da célula deve ser positivo: " + cellDegrees);
+        }
+        long columns = (long) Math.ceil(360.0 / cellDegrees);
+        long rows = (long) Math.floor(180.0 / cellDegrees) + 1;
+        // O índice da célula ocupa os 31 bits altos (sem o sinal) da chave
+        if (rows * columns > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(Locale.ROOT,
+                    "Célula pequena demais: %s graus geram %d células (máximo %d)", cellDegrees, rows * columns, Integer.MAX_VALUE));
+        }
+        // Chave de ordenação na parte alta e posição na parte baixa: ordena long[] sem boxing
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            long row = (long) Math.floor((latitudes[i] + 90.0) / cellDegrees);
+            long column = (long) Math.floor((longitudes[i] + 180.0) / cellDegrees);
+            if ((row & 1) == 1) {
+                column = columns - 1 - column;
+            }
+            keys[i] = ((row * columns + column) << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    /**
+     * Cria um catálogo a partir de uma lista de capitais.
+     */
+    public static LocationCatalog fromCapitals(List<CapitalsData.Capital> capitals) {
+        Builder builder = new Builder(capitals.size());
+        for (CapitalsData.Capital capital : capitals) {
+            builder.add(capital.getName(), capital.getLatitude(), capital.getLongitude());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Carrega um catálogo escolhendo o formato pela extensão do arquivo (.bin ou CSV).
+     */
+    public static LocationCatalog load(Path file) throws IOException {
+        if (file.getFileName().toString().endsWith(".bin")) {
+            return loadBinary(file);
+        }
+        return loadCsv(file);
+    }
+
+    /**
+     * Lê um CSV linha a linha, sem carregar o arquivo inteiro na memória.
+     * O separador (',' ou ';') é escolhido uma única vez, pela primeira linha não vazia
+     * (normalmente o cabeçalho), para que um nome com o outro caractere não mude a divisão da linha.
+     */
+    public static LocationCatalog loadCsv(Path file) throws IOException {
+        Builder builder = new Builder();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            char separator = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (separator == 0) {
+                    separator = detectSeparator(line);
+                }
+                List<String> fields = splitCsvLine(line, separator);
+                try {
+                    if (fields.size() >= 3) {
+                        builder.add(fields.get(0), parseCoordinate(fields.get(1)), parseCoordinate(fields.get(2)));
+                    } else if (fields.size() == 2) {
+                        builder.add(null, parseCoordinate(fields.get(0)), parseCoordinate(fields.get(1)));
+                    } else {
+                        throw new NumberFormatException("colunas insuficientes");
+                    }
+                } catch (NumberFormatException e) {
+                    // A primeira linha pode ser o cabeçalho
+                    if (lineNumber > 1) {
+                        throw new IOException("Linha " + lineNumber + " inválida em " + file + ": " + line, e);
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return O separador que divide a linha em mais campos (fora de aspas); ',' em caso de empate.
+     */
+    private static char detectSeparator(String line) {
+        return splitCsvLine(line, ';').size() > splitCsvLine(line, ',').size() ? ';' : ',';
+    }
+
+    private static double parseCoordinate(String field) {
+        return Double.parseDouble(field.trim());
+    }
+
+    private static List<String> splitCsvLine(String line, char separator) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"'); // Aspas escapadas ("")
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == separator && !quoted) {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    /**
+     * Grava o catálogo no formato binário: cabeçalho, tabela de nomes (tamanho + UTF-8),
+     * índices de nome e os arrays de latitude e longitude.
+     */
+    public void saveBinary(Path file) throws IOException {
+        byte[][] encodedNames = new byte[names.length][];
+        long bytes = HEADER_BYTES + (long) size * (Integer.BYTES + 2 * Double.BYTES);
+        for (int i = 0; i < names.length; i++) {
+            encodedNames[i] = names[i].getBytes(StandardCharsets.UTF_8);
+            bytes += Integer.BYTES + encodedNames[i].length;
+        }
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("Catálogo grande demais para o formato binário: " + bytes + " bytes");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) bytes);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(names.length);
+        for (byte[] name : encodedNames) {
+            buffer.putInt(name.length).put(name);
+        }
+        buffer.asIntBuffer().put(nameIds, 0, size);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        buffer.asDoubleBuffer().put(latitudes, 0, size);
+        buffer.position(buffer.position() + size * Double.BYTES);
+        buffer.asDoubleBuffer().put(longitudes, 0, size);
+        buffer.position(buffer.position() + size * Double.BYTES);
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Lê um catálogo binário via memory-mapping, copiando os arrays em blocos.
+     */
+    public static LocationCatalog loadBinary(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.remaining() < HEADER_BYTES || mapped.getInt() != MAGIC || mapped.getInt() != VERSION) {
+                throw new IOException("Arquivo de catálogo inválido: " + file);
+            }
+            int size = mapped.getInt();
+            int nameCount = mapped.getInt();
+
+            String[] names = new String[nameCount];
+            for (int i = 0; i < nameCount; i++) {
+                byte[] encoded = new byte[mapped.getInt()];
+                mapped.get(encoded);
+                names[i] = new String(encoded, StandardCharsets.UTF_8);
+            }
+            if (mapped.remaining() < (long) size * (Integer.BYTES + 2 * Double.BYTES)) {
+                throw new IOException("Arquivo de catálogo truncado: " + file);
+            }
+
+            int[] nameIds = new int[size];
+            double[] latitudes = new double[size];
+            double[] longitudes = new double[size];
+            mapped.asIntBuffer().get(nameIds);
+            mapped.position(mapped.position() + size * Integer.BYTES);
+            mapped.asDoubleBuffer().get(latitudes);
+            mapped.position(mapped.position() + size * Double.BYTES);
+            mapped.asDoubleBuffer().get(longitudes);
+            return new LocationCatalog(size, latitudes, longitudes, nameIds, names);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.avaliacao;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementação do experimento como um pipeline de três estágios:
+ * <ol>
+ *   <li>busca: poucos workers limitados por I/O baixam o corpo das respostas;</li>
+ *   <li>parsing: um pool do tamanho dos núcleos extrai as temperaturas com o parser de streaming;</li>
+ *   <li>agregação: uma única thread calcula as estatísticas diárias e grava no ResultStore.</li>
+ * </ol>
+ * Os estágios são ligados por filas limitadas: quando um estágio atrasa, put() bloqueia o anterior
+ * (backpressure), e a concorrência de I/O e de CPU pode ser dimensionada separadamente.
+ */
+public class PipelinedExperiment extends ExperimentRunner {
+
+    /**
+     * Item que percorre o pipeline. Um item sem capital sinaliza o fim do fluxo.
+     */
+    private static final class Item {
+        final CapitalsData.Capital capital;
+        final byte[] body;
+        final TemperatureSeries temperatures;
+
+        Item(CapitalsData.Capital capital, byte[] body, TemperatureSeries temperatures) {
+            this.capital = capital;
+            this.body = body;
+            this.temperatures = temperatures;
+        }
+    }
+
+    private static final Item END_OF_STREAM = new Item(null, null, null);
+
+    private final int fetchWorkers;
+    private final int parseWorkers;
+    private final int queueCapacity;
+
+    // Métricas da última rodada executada
+    private volatile List<StageStats> lastStageStats = new ArrayList<>();
+
+    public PipelinedExperiment(List<CapitalsData.Capital> capitals, ResultStore resultStore, LocalDate startDate, LocalDate endDate,
+                               int fetchWorkers, int parseWorkers, int queueCapacity) {
+        super(capitals, resultStore, startDate, endDate);
+        this.fetchWorkers = fetchWorkers;
+        this.parseWorkers = parseWorkers;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Cria o pipeline com o número de workers de parsing igual ao número de núcleos disponíveis.
+     */
+    public PipelinedExperiment(List<CapitalsData.Capital> capitals, ResultStore resultStore, LocalDate startDate, LocalDate endDate,
+                               int fetchWorkers) {
+        this(capitals, resultStore, startDate, endDate, fetchWorkers, Runtime.getRuntime().availableProcessors(), fetchWorkers);
+    }
+
+    @Override
+    public void runExperiment() throws Exception {
+        BlockingQueue<Item> fetched = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Item> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        // Séries livres: limitam quantas séries existem ao mesmo tempo e evitam novas alocações
+        BlockingQueue<TemperatureSeries> freeSeries = new ArrayBlockingQueue<>(queueCapacity + parseWorkers + 1);
+        for (int i = 0; i < queueCapacity + parseWorkers + 1; i++) {
+            freeSeries.add(new TemperatureSeries());
+        }
+
+        StageStats fetchStats = new StageStats("busca", fetchWorkers, null);
+        StageStats parseStats = new StageStats("parsing", parseWorkers, fetched);
+        StageStats aggregateStats = new StageStats("agregação", 1, parsed);
+        lastStageStats = List.of(fetchStats, parseStats, aggregateStats);
+
+        ExecutorService fetchPool = Executors.newFixedThreadPool(fetchWorkers);
+        ExecutorService parsePool = Executors.newFixedThreadPool(parseWorkers);
+        ExecutorService aggregatePool = Executors.newSingleThreadExecutor();
+        try {
+            AtomicInteger nextCapital = new AtomicInteger();
+            fetchStats.markStarted();
+            parseStats.markStarted();
+            aggregateStats.markStarted();
+
+            List<Future<?>> fetchTasks = new ArrayList<>();
+            for (int i = 0; i < fetchWorkers; i++) {
+                fetchTasks.add(fetchPool.submit(() -> runFetchWorker(nextCapital, fetched, fetchStats)));
+            }
+            List<Future<?>> parseTasks = new ArrayList<>();
+            for (int i = 0; i < parseWorkers; i++) {
+                parseTasks.add(parsePool.submit(() -> runParseWorker(fetched, parsed, freeSeries, parseStats)));
+            }
+            Future<?> aggregateTask = aggregatePool.submit(() -> runAggregateWorker(parsed, freeSeries, aggregateStats));
+
+            // Encerra cada estágio em ordem: um marcador de fim por worker do estágio seguinte
+            awaitAll(fetchTasks);
+            fetchStats.markFinished();
+            for (int i = 0; i < parseWorkers; i++) {
+                fetched.put(END_OF_STREAM);
+            }
+            awaitAll(parseTasks);
+            parseStats.markFinished();
+            parsed.put(END_OF_STREAM);
+            aggregateTask.get();
+            aggregateStats.markFinished();
+        } finally {
+            fetchPool.shutdownNow();
+            parsePool.shutdownNow();
+            aggregatePool.shutdownNow();
+        }
+    }
+
+    private Void runFetchWorker(AtomicInteger nextCapital, BlockingQueue<Item> output, StageStats stats) throws InterruptedException {
+        WeatherApiClient client = getWeatherApiClient();
+        int index;
+        while ((index = nextCapital.getAndIncrement()) < capitals.size()) {
+            CapitalsData.Capital capital = capitals.get(index);
+            long start = System.nanoTime();
+            byte[] body;
+            try {
+                body = client.getWeatherBytes(capital.getLatitude(), capital.getLongitude(), startDate, endDate);
+            } catch (Exception e) {
+                System.err.println("Erro ao processar capital: " + capital.getName() + ": " + e.getMessage());
+                continue;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                stats.recordItem(elapsed);
+                recordRequestLatency(elapsed);
+            }
+            putWithBackpressure(output, new Item(capital, body, null), stats);
+        }
+        return null;
+    }
+
+    private Void runParseWorker(BlockingQueue<Item> input, BlockingQueue<Item> output,
+                                BlockingQueue<TemperatureSeries> freeSeries, StageStats stats) throws InterruptedException {
+        WeatherApiClient client = getWeatherApiClient();
+        while (true) {
+            stats.sampleQueueDepth();
+            Item item = input.take();
+            if (item == END_OF_STREAM) {
+                return null;
+            }
+            TemperatureSeries temperatures = freeSeries.take();
+            long start = System.nanoTime();
+            try {
+                client.parseTemperatures(ByteBuffer.wrap(item.body), temperatures);
+            } catch (Exception e) {
+                freeSeries.put(temperatures);
+                System.err.println("Erro ao processar capital: " + item.capital.getName() + ": " + e.getMessage());
+                continue;
+            } finally {
+                stats.recordItem(System.nanoTime() - start);
+            }
+            putWithBackpressure(output, new Item(item.capital, null, temperatures), stats);
+        }
+    }
+
+    private Void runAggregateWorker(BlockingQueue<Item> input, BlockingQueue<TemperatureSeries> freeSeries,
+                                    StageStats stats) throws InterruptedException {
+        while (true) {
+            stats.sampleQueueDepth();
+            Item item = input.take();
+            if (item == END_OF_STREAM) {
+                return null;
+            }
+            long start = System.nanoTime();
+            try {
+                processAndStore(item.capital, item.temperatures);
+            } catch (RuntimeException e) {
+                // O estágio não pode parar: os anteriores ficariam bloqueados na fila cheia
+                System.err.println("Erro ao processar capital: " + item.capital.getName() + ": " + e.getMessage());
+            } finally {
+                stats.recordItem(System.nanoTime() - start);
+                freeSeries.put(item.temperatures);
+            }
+        }
+    }
+
+    private static void putWithBackpressure(BlockingQueue<Item> queue, Item item, StageStats stats) throws InterruptedException {
+        long start = System.nanoTime();
+        queue.put(item);
+        stats.recordBlocked(System.nanoTime() - start);
+    }
+
+    private static void awaitAll(List<Future<?>> tasks) throws Exception {
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+    }
+
+    /**
+     * @return As métricas de cada estágio na última rodada (busca, parsing, agregação).
+     */
+    public List<StageStats> getStageStats() {
+        return lastStageStats;
+    }
+
+    /**
+     * Monta um relatório de texto com as métricas de cada estágio da última rodada.
+     */
+    public String stageReport() {
+        StringBuilder report = new StringBuilder("Estágios do pipeline (última rodada):\n");
+        for (StageStats stats : lastStageStats) {
+            report.append("  ").append(stats).append('\n');
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,538 @@
+package com.avaliacao;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.json.JSONObject;
+
+/**
+ * Servidor HTTP local que substitui a Open-Meteo em benchmarks reproduzíveis e sem rede.
+ * Responde aos mesmos parâmetros da API (inclusive listas de coordenadas separadas por vírgula)
+ * com respostas gravadas em disco ou, na falta delas, geradas pelo WeatherFixtures.
+ * Antes de cada resposta são aplicados, nesta ordem:
+ * <ul>
+ *   <li>o limite de requisições simultâneas: as que passam do limite esperam na fila, como em um servidor
+ *       com workers fixos (as conexões TCP em si não são limitadas);</li>
+ *   <li>a latência sorteada da distribuição configurada;</li>
+ *   <li>erros (500) e limitação de taxa (429 com Retry-After) sorteados pelas taxas configuradas;</li>
+ *   <li>o limite de banda, aplicado ao envio do corpo de cada resposta.</li>
+ * </ul>
+ * Os sorteios usam uma semente fixa e o número de ordem da requisição, então a mesma semente
+ * produz a mesma sequência de latências e erros na ordem de chegada.
+ *
+ * Para apontar os clientes para o servidor, use -Dweather.api.baseUrl (e -Dweather.api.archiveUrl no modo de histórico).
+ * Requisições cujo caminho termina em /archive são do endpoint de histórico: no modo de gravação são buscadas
+ * na API de arquivo e gravadas no subdiretório archive, separadas das de previsão.
+ *
+ * Falhas ao montar a resposta são respondidas com erro: 502 se a busca no servidor real (modo de gravação)
+ * falhou e 500 se a leitura de uma gravação falhou. Só falhas ao escrever a resposta são tratadas como
+ * desistência do cliente, sem resposta.
+ */
+public class ReplayServer implements AutoCloseable {
+
+    // Respostas montadas mantidas em memória (gerar ou ler do disco custa mais do que enviar)
+    private static final int BODY_CACHE_ENTRIES = 1024;
+    // Tamanho dos blocos do corpo quando há limite de banda
+    private static final int CHUNK_BYTES = 8 * 1024;
+
+    /**
+     * Endpoint atendido, pelo caminho da requisição; cada um tem suas gravações.
+     */
+    private enum Endpoint {
+        FORECAST(""),
+        ARCHIVE("archive/");
+
+        private final String directory;
+
+        Endpoint(String directory) {
+            this.directory = directory;
+        }
+
+        static Endpoint of(String path) {
+            return path != null && path.endsWith("/archive") ? ARCHIVE : FORECAST;
+        }
+    }
+
+    /**
+     * Falha na busca da resposta no servidor real (modo de gravação), respondida com 502.
+     */
+    private static class UpstreamException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        UpstreamException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * Distribuição da latência adicionada a cada resposta, em milissegundos.
+     */
+    public abstract static class Latency {
+
+        public abstract double sampleMillis(SplittableRandom random);
+
+        public static Latency none() {
+            return fixed(0);
+        }
+
+        public static Latency fixed(double millis) {
+            return new Latency() {
+                @Override
+                public double sampleMillis(SplittableRandom random) {
+                    return millis;
+                }
+
+                @Override
+                public String toString() {
+                    return String.format(Locale.ROOT, "fixa %.0f ms", millis);
+                }
+            };
+        }
+
+        public static Latency uniform(double minMillis, double maxMillis) {
+            return new Latency() {
+                @Override
+                public double sampleMillis(SplittableRandom random) {
+                    return minMillis + random.nextDouble() * (maxMillis - minMillis);
+                }
+
+                @Override
+                public String toString() {
+                    return String.format(Locale.ROOT, "uniforme %.0f-%.0f ms", minMillis, maxMillis);
+                }
+            };
+        }
+
+        /**
+         * Log-normal com a mediana e o desvio (sigma do logaritmo) dados: a maioria das respostas fica
+         * perto da mediana e uma cauda longa de respostas lentas, como na rede real.
+         */
+        public static Latency logNormal(double medianMillis, double sigma) {
+            return new Latency() {
+                @Override
+                public double sampleMillis(SplittableRandom random) {
+                    return medianMillis * Math.exp(sigma * gaussian(random));
+                }
+
+                @Override
+                public String toString() {
+                    return String.format(Locale.ROOT, "log-normal mediana %.0f ms, sigma %.2f", medianMillis, sigma);
+                }
+            };
+        }
+
+        /**
+         * Lê uma distribuição no formato "fixed:50", "uniform:20:80" ou "lognormal:50:0.6".
+         */
+        public static Latency parse(String spec) {
+            String[] parts = spec.trim().toLowerCase(Locale.ROOT).split(":");
+            try {
+                switch (parts[0]) {
+                    case "none":
+                        return none();
+                    case "fixed":
+                        return fixed(Double.parseDouble(parts[1]));
+                    case "uniform":
+                        return uniform(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                    case "lognormal":
+                        return logNormal(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                    default:
+                        break;
+                }
+            } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                // Cai na mensagem de formato abaixo
+            }
+            throw new IllegalArgumentException("Latência inválida: '" + spec
+                    + "' (use none, fixed:ms, uniform:min:max ou lognormal:mediana:sigma)");
+        }
+
+        // Box-Muller: SplittableRandom não tem nextGaussian no Java 17
+        private static double gaussian(SplittableRandom random) {
+            double u = 1.0 - random.nextDouble();
+            double v = random.nextDouble();
+            return Math.sqrt(-2.0 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+        }
+    }
+
+    private final int port;
+    private final Path recordingDirectory;
+
+    private Latency latency = Latency.none();
+    private long bandwidthBytesPerSecond = 0;
+    private double errorRate = 0.0;
+    private double throttleRate = 0.0;
+    private int maxConcurrentRequests = 0;
+    private long seed = 42;
+    private String recordFromUrl;
+    private String recordArchiveFromUrl = WeatherApiClient.ARCHIVE_URL;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    // Chaveado pelo arquivo da gravação (relativo ao diretório), que distingue os endpoints
+    private final Map<String, byte[]> bodyCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+            return size() > BODY_CACHE_ENTRIES;
+        }
+    };
+
+    // Métricas
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong locationsServed = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+
+    /**
+     * @param port A porta local (0 escolhe uma porta livre, informada por getPort após o start).
+     * @param recordingDirectory Diretório com respostas gravadas, uma por requisição
+     *        (WeatherRequestKey.toFileName() + ".json"); pode ser null para usar só respostas geradas.
+     */
+    public ReplayServer(int port, Path recordingDirectory) {
+        this.port = port;
+        this.recordingDirectory = recordingDirectory;
+    }
+
+    public void setLatency(Latency latency) { this.latency = latency; }
+
+    /**
+     * @param bandwidthBytesPerSecond Taxa máxima de envio de cada resposta (0 = sem limite).
+     */
+    public void setBandwidth(long bandwidthBytesPerSecond) { this.bandwidthBytesPerSecond = bandwidthBytesPerSecond; }
+
+    /**
+     * @param errorRate Fração das requisições respondidas com 500.
+     */
+    public void setErrorRate(double errorRate) { this.errorRate = errorRate; }
+
+    /**
+     * @param throttleRate Fração das requisições respondidas com 429.
+     */
+    public void setThrottleRate(double throttleRate) { this.throttleRate = throttleRate; }
+
+    /**
+     * @param maxConcurrentRequests Requisições atendidas ao mesmo tempo (0 = sem limite); as demais esperam.
+     *        Limita só as threads de atendimento, não as conexões TCP aceitas. Deve ser definido antes do start.
+     */
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) { this.maxConcurrentRequests = maxConcurrentRequests; }
+
+    public void setSeed(long seed) { this.seed = seed; }
+
+    /**
+     * Modo de gravação: respostas que não estão no diretório são buscadas nesta URL
+     * (ex.: a da Open-Meteo) e gravadas, para serem reproduzidas nas próximas execuções sem rede.
+     * As requisições do endpoint de histórico são buscadas na URL de setRecordArchiveFrom.
+     */
+    public void setRecordFrom(String upstreamBaseUrl) { this.recordFromUrl = upstreamBaseUrl; }
+
+    /**
+     * @param upstreamArchiveUrl A URL de histórico usada no modo de gravação (padrão: WeatherApiClient.ARCHIVE_URL).
+     */
+    public void setRecordArchiveFrom(String upstreamArchiveUrl) { this.recordArchiveFromUrl = upstreamArchiveUrl; }
+
+    /**
+     * Inicia o servidor. Qualquer caminho é aceito, então a mesma instância atende
+     * http://127.0.0.1:porta/v1/forecast e http://127.0.0.1:porta/v1/archive.
+     */
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/", this::handle);
+        executor = maxConcurrentRequests > 0 ? Executors.newFixedThreadPool(maxConcurrentRequests) : Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return A URL a usar em -Dweather.api.baseUrl.
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + getPort() + "/v1/forecast";
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long sequence = requests.incrementAndGet();
+        int current = active.incrementAndGet();
+        peakActive.accumulateAndGet(current, Math::max);
+        try {
+            // Sorteios independentes da ordem de atendimento, derivados só da semente e do número da requisição
+            SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + sequence);
+            sleepMillis(latency.sampleMillis(random));
+
+            double draw = random.nextDouble();
+            if (draw < errorRate) {
+                errors.incrementAndGet();
+                sendError(exchange, 500, "Erro simulado pelo servidor de replay");
+                return;
+            }
+            if (draw < errorRate + throttleRate) {
+                throttled.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 429, "Limite de requisições simulado pelo servidor de replay");
+                return;
+            }
+
+            byte[] body;
+            try {
+                body = buildBody(Endpoint.of(exchange.getRequestURI().getPath()),
+                        parseQuery(exchange.getRequestURI().getRawQuery()));
+            } catch (IllegalArgumentException | DateTimeException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            } catch (UpstreamException e) {
+                System.err.println("Replay: " + e.getMessage());
+                sendError(exchange, 502, e.getMessage());
+                return;
+            } catch (IOException e) {
+                System.err.println("Replay: falha ao ler a resposta gravada: " + e);
+                sendError(exchange, 500, "Falha ao ler a resposta gravada: " + e.getMessage());
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                writeThrottled(out, body);
+            }
+            bytesSent.addAndGet(body.length);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // Falha ao escrever a resposta: o cliente desistiu (ex.: tempo limite ou hedging); nada a responder
+        } finally {
+            active.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    /**
+     * Monta o corpo: um objeto para uma coordenada ou um array com um objeto por coordenada.
+     */
+    private byte[] buildBody(Endpoint endpoint, Map<String, String> query) throws IOException {
+        String latitudes = query.get("latitude");
+        String longitudes = query.get("longitude");
+        if (latitudes == null || longitudes == null || !query.containsKey("start_date") || !query.containsKey("end_date")) {
+            throw new IllegalArgumentException("Parâmetros obrigatórios: latitude, longitude, start_date e end_date");
+        }
+        String[] lats = latitudes.split(",");
+        String[] lons = longitudes.split(",");
+        if (lats.length != lons.length) {
+            throw new IllegalArgumentException("Quantidades diferentes de latitudes e longitudes");
+        }
+        LocalDate startDate = LocalDate.parse(query.get("start_date"));
+        LocalDate endDate = LocalDate.parse(query.get("end_date"));
+        // Valida o intervalo (fim antes do início responde 400, como na API)
+        new DateRange(startDate, endDate);
+        String variables = query.getOrDefault("hourly", WeatherRequestKey.DEFAULT_VARIABLES);
+
+        if (lats.length == 1) {
+            return locationBody(endpoint, new WeatherRequestKey(parseCoordinate(lats[0]), parseCoordinate(lons[0]), startDate, endDate, variables));
+        }
+        StringBuilder array = new StringBuilder().append('[');
+        for (int i = 0; i < lats.length; i++) {
+            if (i > 0) {
+                array.append(',');
+            }
+            WeatherRequestKey key = new WeatherRequestKey(parseCoordinate(lats[i]), parseCoordinate(lons[i]), startDate, endDate, variables);
+            array.append(new String(locationBody(endpoint, key), StandardCharsets.UTF_8));
+        }
+        return array.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Resposta de uma coordenada: do cache em memória, da gravação em disco, do servidor real
+     * (modo de gravação) ou gerada, nesta ordem.
+     */
+    private byte[] locationBody(Endpoint endpoint, WeatherRequestKey key) throws IOException {
+        locationsServed.incrementAndGet();
+        String fileName = endpoint.directory + key.toFileName() + ".json";
+        synchronized (bodyCache) {
+            byte[] cached = bodyCache.get(fileName);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        byte[] body = null;
+        Path file = recordingDirectory == null ? null : recordingDirectory.resolve(fileName);
+        if (file != null && Files.exists(file)) {
+            body = Files.readAllBytes(file);
+        } else if (file != null && recordFromUrl != null) {
+            String json = record(endpoint, key);
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, json, StandardCharsets.UTF_8);
+            body = json.getBytes(StandardCharsets.UTF_8);
+        }
+        if (body == null) {
+            body = WeatherFixtures.generate(key.getLatitude(), key.getLongitude(), key.getStartDate(), key.getEndDate())
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+        synchronized (bodyCache) {
+            bodyCache.put(fileName, body);
+        }
+        return body;
+    }
+
+    /**
+     * Busca a resposta no servidor real, no endpoint da requisição.
+     * @throws UpstreamException se a busca falhar (erro de rede ou status diferente de 200).
+     */
+    private String record(Endpoint endpoint, WeatherRequestKey key) throws UpstreamException {
+        String upstream = endpoint == Endpoint.ARCHIVE ? recordArchiveFromUrl : recordFromUrl;
+        try {
+            return new WeatherApiClient(upstream).getWeatherData(key.getLatitude(), key.getLongitude(),
+                    key.getStartDate(), key.getEndDate());
+        } catch (Exception e) {
+            throw new UpstreamException("Falha ao gravar " + key + " de " + upstream + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Envia o corpo em blocos, dormindo o necessário para não passar do limite de banda.
+     */
+    private void writeThrottled(OutputStream out, byte[] body) throws IOException, InterruptedException {
+        if (bandwidthBytesPerSecond <= 0) {
+            out.write(body);
+            return;
+        }
+        long start = System.nanoTime();
+        for (int offset = 0; offset < body.length; offset += CHUNK_BYTES) {
+            int length = Math.min(CHUNK_BYTES, body.length - offset);
+            out.write(body, offset, length);
+            out.flush();
+            long dueNanos = (offset + length) * 1_000_000_000L / bandwidthBytesPerSecond;
+            long aheadNanos = dueNanos - (System.nanoTime() - start);
+            if (aheadNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(aheadNanos);
+            }
+        }
+    }
+
+    /**
+     * Erro no formato da Open-Meteo: {"error": true, "reason": "..."}.
+     */
+    private static void sendError(HttpExchange exchange, int status, String reason) throws IOException {
+        // O motivo pode repetir trechos da query string; o JSONObject escapa aspas, barras e caracteres de controle
+        byte[] body = new JSONObject().put("error", true).put("reason", Objects.toString(reason, "")).toString()
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static double parseCoordinate(String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Coordenada inválida: " + value);
+        }
+    }
+
+    private static void sleepMillis(double millis) throws InterruptedException {
+        if (millis > 0) {
+            TimeUnit.NANOSECONDS.sleep((long) (millis * 1_000_000));
+        }
+    }
+
+    public long getRequests() { return requests.get(); }
+    public long getLocationsServed() { return locationsServed.get(); }
+    public long getErrors() { return errors.get(); }
+    public long getThrottled() { return throttled.get(); }
+    public long getBytesSent() { return bytesSent.get(); }
+    public int getPeakActive() { return peakActive.get(); }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "Replay: %d requisições (%d localidades), %d erros, %d limitadas, %.1f MB enviados, pico de %d simultâneas"
+                        + " | latência %s, banda %s, requisições simultâneas %s",
+                getRequests(), getLocationsServed(), getErrors(), getThrottled(), getBytesSent() / 1e6, getPeakActive(),
+                latency, bandwidthBytesPerSecond > 0 ? bandwidthBytesPerSecond / 1024 + " KB/s" : "sem limite",
+                maxConcurrentRequests > 0 ? String.valueOf(maxConcurrentRequests) : "sem limite");
+    }
+
+    /**
+     * Cria um servidor (ainda não iniciado) com a configuração das propriedades de sistema:
+     * replay.port, replay.dir, replay.record (URL real para gravar o que faltar), replay.recordArchive
+     * (URL real do histórico, por padrão a da Open-Meteo),
+     * replay.latency (ex.: lognormal:80:0.6), replay.bandwidth (bytes/s), replay.errorRate,
+     * replay.throttleRate, replay.maxConcurrentRequests e replay.seed.
+     * @param defaultPort A porta usada sem replay.port (0 escolhe uma porta livre).
+     */
+    public static ReplayServer fromSystemProperties(int defaultPort) {
+        String directory = System.getProperty("replay.dir");
+        ReplayServer replay = new ReplayServer(Integer.getInteger("replay.port", defaultPort),
+                directory == null ? null : Path.of(directory));
+        replay.setLatency(Latency.parse(System.getProperty("replay.latency", "none")));
+        replay.setBandwidth(Long.getLong("replay.bandwidth", 0L));
+        replay.setErrorRate(Double.parseDouble(System.getProperty("replay.errorRate", "0")));
+        replay.setThrottleRate(Double.parseDouble(System.getProperty("replay.throttleRate", "0")));
+        replay.setMaxConcurrentRequests(Integer.getInteger("replay.maxConcurrentRequests", 0));
+        replay.setSeed(Long.getLong("replay.seed", 42L));
+        replay.setRecordFrom(System.getProperty("replay.record"));
+        replay.setRecordArchiveFrom(System.getProperty("replay.recordArchive", WeatherApiClient.ARCHIVE_URL));
+        return replay;
+    }
+
+    /**
+     * Inicia o servidor com a configuração das propriedades de sistema (fromSystemProperties,
+     * na porta 8080 por padrão) e fica no ar até ser encerrado.
+     */
+    public static void main(String[] args) throws IOException {
+        ReplayServer replay = fromSystemProperties(8080);
+        replay.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println(replay)));
+        System.out.println("Servidor de replay em " + replay.getBaseUrl());
+        System.out.printf("Use -Dweather.api.baseUrl=%s -Dweather.api.archiveUrl=http://127.0.0.1:%d/v1/archive%n",
+                replay.getBaseUrl(), replay.getPort());
+    }
+}
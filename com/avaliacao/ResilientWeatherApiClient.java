@@ -0,0 +1,243 @@
+package com.avaliacao;
+
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Cliente que aplica uma política de execução às requisições de um AsyncWeatherApiClient,
+ * para que uma única resposta lenta ou com falha não determine o tempo da rodada:
+ * <ul>
+ *   <li>cada tentativa tem um tempo limite próprio;</li>
+ *   <li>429, 5xx e tempos limite são repetidos com espera exponencial com jitter completo
+ *       (um valor aleatório entre zero e o teto da tentativa), até maxAttempts tentativas;</li>
+ *   <li>hedging: se uma tentativa passa do p95 das latências observadas, uma cópia da requisição
+ *       é enviada e vale a primeira resposta bem-sucedida.</li>
+ * </ul>
+ * Repetições e cópias consomem o mesmo RetryBudget, que limita a carga extra enviada ao servidor.
+ * O hedging só começa depois de MIN_HEDGE_SAMPLES latências registradas (em geral, a partir da segunda rodada).
+ * As buscas em lote continuam sem a política, pela implementação herdada.
+ */
+public class ResilientWeatherApiClient extends WeatherApiClient {
+
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+    private static final double HEDGE_PERCENTILE = 95.0;
+    private static final int MIN_HEDGE_SAMPLES = 20;
+    // Teto da espera antes da primeira repetição (dobra a cada tentativa) e teto absoluto
+    private static final long BASE_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 2_000;
+
+    private final AsyncWeatherApiClient delegate;
+    private final Duration attemptTimeout;
+    private final int maxAttempts;
+    private final RetryBudget retryBudget;
+
+    // Latência das tentativas bem-sucedidas, usada para decidir quando enviar a cópia
+    private final LatencyHistogram attemptLatencies = new LatencyHistogram();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    /**
+     * Usa um AsyncWeatherApiClient com o tempo limite da tentativa, 3 tentativas e um orçamento de 10%.
+     */
+    public ResilientWeatherApiClient(Duration attemptTimeout) {
+        this(new AsyncWeatherApiClient(attemptTimeout), attemptTimeout, DEFAULT_MAX_ATTEMPTS, new RetryBudget(0.1, 10));
+    }
+
+    /**
+     * @param attemptTimeout Tempo limite de cada tentativa (a original e cada repetição ou cópia).
+     * @param maxAttempts Tentativas sequenciais por requisição, incluindo a primeira (as cópias não contam).
+     * @param retryBudget Orçamento de repetições e cópias; pode ser compartilhado entre clientes.
+     */
+    public ResilientWeatherApiClient(AsyncWeatherApiClient delegate, Duration attemptTimeout, int maxAttempts,
+                                     RetryBudget retryBudget) {
+        super(delegate.getBaseUrl());
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("É preciso ao menos uma tentativa: " + maxAttempts);
+        }
+        this.delegate = delegate;
+        this.attemptTimeout = attemptTimeout;
+        this.maxAttempts = maxAttempts;
+        this.retryBudget = retryBudget;
+    }
+
+    @Override
+    public String getWeatherData(double latitude, double longitude, LocalDate startDate, LocalDate endDate) throws Exception {
+        return execute(() -> delegate.getWeatherDataAsync(latitude, longitude, startDate, endDate));
+    }
+
+    @Override
+    public byte[] getWeatherBytes(double latitude, double longitude, LocalDate startDate, LocalDate endDate) throws Exception {
+        return execute(() -> delegate.getWeatherBytesAsync(latitude, longitude, startDate, endDate)).array();
+    }
+
+    /**
+     * O corpo é recebido inteiro antes do parsing, pois duas tentativas simultâneas
+     * não podem escrever na mesma série.
+     */
+    @Override
+    public boolean fetchTemperatures(double latitude, double longitude, LocalDate startDate, LocalDate endDate,
+                                     TemperatureSeries target) throws Exception {
+        ByteBuffer body = execute(() -> delegate.getWeatherBytesAsync(latitude, longitude, startDate, endDate));
+        return parseTemperatures(body, target);
+    }
+
+    /**
+     * Executa uma requisição com repetições, bloqueando até a resposta ou o último erro.
+     * @param request Dispara uma nova tentativa a cada chamada.
+     */
+    private <T> T execute(Supplier<CompletableFuture<T>> request) throws Exception {
+        requests.incrementAndGet();
+        retryBudget.deposit();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return hedged(request).get();
+            } catch (ExecutionException e) {
+                Exception cause = AsyncWeatherApiClient.unwrap(e.getCause());
+                if (attempt >= maxAttempts || !isRetryable(cause) || !retryBudget.tryAcquire()) {
+                    throw cause;
+                }
+                retries.incrementAndGet();
+                Thread.sleep(backoffMillis(attempt));
+            }
+        }
+    }
+
+    /**
+     * Dispara uma tentativa e agenda a cópia para quando ela passar do p95 observado.
+     * O resultado é a primeira resposta bem-sucedida; se as duas falharem, o erro é o da tentativa original.
+     */
+    private <T> CompletableFuture<T> hedged(Supplier<CompletableFuture<T>> request) {
+        CompletableFuture<T> primary = attempt(request);
+        long hedgeDelayNanos = hedgeDelayNanos();
+        if (hedgeDelayNanos <= 0) {
+            return primary;
+        }
+
+        CompletableFuture<T> hedge = new CompletableFuture<>();
+        // Quem chegar primeiro decide o destino da cópia: o agendamento (envia, se houver orçamento)
+        // ou o fim da tentativa original (cancela, pois não há mais o que esperar)
+        AtomicBoolean hedgeDecided = new AtomicBoolean();
+        CompletableFuture.delayedExecutor(hedgeDelayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+            if (!hedgeDecided.compareAndSet(false, true)) {
+                return;
+            }
+            if (!retryBudget.tryAcquire()) {
+                hedge.cancel(false);
+                return;
+            }
+            hedges.incrementAndGet();
+            attempt(request).whenComplete((value, error) -> {
+                if (error != null) {
+                    hedge.completeExceptionally(error);
+                } else {
+                    hedge.complete(value);
+                }
+            });
+        });
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicReference<Throwable> primaryError = new AtomicReference<>();
+        AtomicInteger failures = new AtomicInteger();
+        primary.whenComplete((value, error) -> {
+            if (hedgeDecided.compareAndSet(false, true)) {
+                hedge.cancel(false);
+            }
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+            primaryError.set(error);
+            if (failures.incrementAndGet() == 2) {
+                result.completeExceptionally(error);
+            }
+        });
+        hedge.whenComplete((value, error) -> {
+            if (error == null) {
+                if (result.complete(value)) {
+                    hedgeWins.incrementAndGet();
+                }
+                return;
+            }
+            if (failures.incrementAndGet() == 2) {
+                Throwable original = primaryError.get();
+                result.completeExceptionally(original != null ? original : error);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Uma tentativa com tempo limite, registrando a latência quando bem-sucedida.
+     */
+    private <T> CompletableFuture<T> attempt(Supplier<CompletableFuture<T>> request) {
+        long start = System.nanoTime();
+        return request.get()
+                .orTimeout(attemptTimeout.toNanos(), TimeUnit.NANOSECONDS)
+                .whenComplete((value, error) -> {
+                    if (error == null) {
+                        attemptLatencies.record(System.nanoTime() - start);
+                    }
+                });
+    }
+
+    /**
+     * @return O atraso da cópia (p95 das tentativas), ou 0 enquanto não há amostras suficientes.
+     */
+    private long hedgeDelayNanos() {
+        if (attemptLatencies.getCount() < MIN_HEDGE_SAMPLES) {
+            return 0;
+        }
+        return attemptLatencies.getPercentileNanos(HEDGE_PERCENTILE);
+    }
+
+    /**
+     * Jitter completo: espera aleatória entre 0 e min(MAX, BASE * 2^(tentativa - 1)),
+     * para que as repetições de requisições que falharam juntas não cheguem juntas ao servidor.
+     */
+    private static long backoffMillis(int attempt) {
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static boolean isRetryable(Exception e) {
+        if (e instanceof HttpStatusException) {
+            return ((HttpStatusException) e).isRetryable();
+        }
+        return e instanceof TimeoutException || e instanceof HttpTimeoutException;
+    }
+
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    public LatencyHistogram getAttemptLatencies() {
+        return attemptLatencies;
+    }
+
+    public long getRequests() { return requests.get(); }
+    public long getRetries() { return retries.get(); }
+    public long getHedges() { return hedges.get(); }
+    /** Cópias que responderam antes da tentativa original. */
+    public long getHedgeWins() { return hedgeWins.get(); }
+
+    @Override
+    public String toString() {
+        return String.format("Requisições: %d, repetições: %d, cópias (hedging): %d, cópias vencedoras: %d, tentativas: %s\n%s",
+                getRequests(), getRetries(), getHedges(), getHedgeWins(), attemptLatencies, retryBudget);
+    }
+}
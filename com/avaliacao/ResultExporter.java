@@ -0,0 +1,163 @@
+package com.avaliacao;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Exportação dos resultados em streaming: cada linha é montada em um StringBuilder reaproveitado e
+ * escrita no Writer (que deve ser bufferizado), sem printf por linha e sem montar a saída inteira em memória.
+ * Os números têm 2 casas com o mesmo arredondamento do %.2f; com um ColumnarResultStore as colunas
+ * são lidas diretamente, sem a visão em mapas.
+ */
+public final class ResultExporter {
+
+    private static final String CSV_HEADER = "capital,data,media,minima,maxima\n";
+
+    private ResultExporter() {
+    }
+
+    /**
+     * Escreve os resultados no formato do displayResults ("Capital: ..." seguido de uma linha por dia),
+     * com o separador decimal do locale padrão, como no printf.
+     */
+    public static void writeText(ResultStore store, Writer out) throws IOException {
+        char separator = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT)).getDecimalSeparator();
+        StringBuilder line = new StringBuilder(96);
+        forEachDay(store, new DayVisitor() {
+            @Override
+            public void location(String name) throws IOException {
+                out.write("Capital: ");
+                out.write(name);
+                out.write('\n');
+            }
+
+            @Override
+            public void day(String name, LocalDate date, double min, double max, double mean) throws IOException {
+                line.setLength(0);
+                line.append("  Data: ").append(date).append(", Média: ");
+                appendFixed2(line, mean, separator);
+                line.append(", Mínima: ");
+                appendFixed2(line, min, separator);
+                line.append(", Máxima: ");
+                appendFixed2(line, max, separator);
+                line.append('\n');
+                out.append(line);
+            }
+        });
+    }
+
+    /**
+     * Escreve os resultados em CSV (capital, data, média, mínima, máxima), com ponto decimal.
+     * O nome segue a RFC 4180: vai entre aspas se tiver vírgula, aspas ou quebra de linha,
+     * com as aspas internas duplicadas.
+     */
+    public static void writeCsv(ResultStore store, Writer out) throws IOException {
+        out.write(CSV_HEADER);
+        StringBuilder line = new StringBuilder(96);
+        forEachDay(store, new DayVisitor() {
+            // Nome já no formato do CSV, montado uma vez por localidade
+            private String field;
+
+            @Override
+            public void location(String name) {
+                field = csvField(name);
+            }
+
+            @Override
+            public void day(String name, LocalDate date, double min, double max, double mean) throws IOException {
+                line.setLength(0);
+                line.append(field).append(',').append(date).append(',');
+                appendFixed2(line, mean, '.');
+                line.append(',');
+                appendFixed2(line, min, '.');
+                line.append(',');
+                appendFixed2(line, max, '.');
+                line.append('\n');
+                out.append(line);
+            }
+        });
+    }
+
+    /**
+     * @return O valor como campo CSV (RFC 4180): sem alteração, ou entre aspas com as aspas internas duplicadas.
+     */
+    static String csvField(String value) {
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!needsQuotes) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private interface DayVisitor {
+        void location(String name) throws IOException;
+
+        void day(String name, LocalDate date, double min, double max, double mean) throws IOException;
+    }
+
+    private static void forEachDay(ResultStore store, DayVisitor visitor) throws IOException {
+        if (store instanceof ColumnarResultStore) {
+            ColumnarResultStore columnar = (ColumnarResultStore) store;
+            LocalDate firstDay = columnar.getFirstDay();
+            for (int location = 0; location < columnar.getLocationCount(); location++) {
+                String name = columnar.getLocationName(location);
+                visitor.location(name);
+                for (int day = 0; day < columnar.getDays(); day++) {
+                    double mean = columnar.getMean(location, day);
+                    if (!Double.isNaN(mean)) {
+                        visitor.day(name, firstDay.plusDays(day), columnar.getMin(location, day), columnar.getMax(location, day), mean);
+                    }
+                }
+            }
+            return;
+        }
+        for (Map.Entry<String, Map<LocalDate, WeatherDataProcessor.DailyStats>> capital : store.getAllCapitalsData().entrySet()) {
+            visitor.location(capital.getKey());
+            for (Map.Entry<LocalDate, WeatherDataProcessor.DailyStats> daily : capital.getValue().entrySet()) {
+                WeatherDataProcessor.DailyStats stats = daily.getValue();
+                visitor.day(capital.getKey(), daily.getKey(), stats.getMin(), stats.getMax(), stats.getMean());
+            }
+        }
+    }
+
+    /**
+     * Acrescenta o valor com 2 casas decimais, arredondando como o %.2f (meio para cima sobre a
+     * representação decimal mais curta do double). O caminho rápido usa aritmética de long; valores
+     * a menos de 1e-6 de um meio exato passam pelo BigDecimal para decidir o arredondamento.
+     */
+    static void appendFixed2(StringBuilder out, double value, char separator) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            out.append(Double.isNaN(value) ? "NaN" : value > 0 ? "Infinity" : "-Infinity");
+            return;
+        }
+        boolean negative = value < 0 || (value == 0 && 1 / value < 0);
+        double magnitude = Math.abs(value);
+        double scaled = magnitude * 100;
+        if (negative) {
+            out.append('-');
+        }
+        if (scaled >= 1e15) {
+            out.append(BigDecimal.valueOf(magnitude).setScale(2, RoundingMode.HALF_UP).toPlainString().replace('.', separator));
+            return;
+        }
+        long cents = Math.abs(scaled - Math.floor(scaled) - 0.5) > 1e-6
+                ? Math.round(scaled)
+                : BigDecimal.valueOf(magnitude).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+        out.append(cents / 100).append(separator);
+        long fraction = cents % 100;
+        if (fraction < 10) {
+            out.append('0');
+        }
+        out.append(fraction);
+    }
+}
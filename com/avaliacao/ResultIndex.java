@@ -0,0 +1,487 @@
+package com.avaliacao;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Índice somente leitura sobre os resultados de um ResultStore, para consultas sem varrer todos os dados.
+ * É montado uma vez (por exemplo, ao final de uma rodada) e não acompanha escritas posteriores no store.
+ * Estruturas, todas em arrays primitivos indexados por localidade e dia:
+ * <ul>
+ *   <li>colunas de mínima, máxima e média, com NaN nos dias sem dados;</li>
+ *   <li>somas prefixadas das médias (com a contagem de dias válidos), para médias de intervalos em O(1);</li>
+ *   <li>árvores de segmentos da máxima e da mínima de cada localidade, para extremos de intervalos em O(log dias);</li>
+ *   <li>a ordem das localidades em cada dia por métrica, montada na primeira consulta que precisa dela,
+ *       para top-K entre localidades e dias e buscas por limiar em cada dia.</li>
+ * </ul>
+ * A memória é proporcional a localidades × dias (cerca de 60 bytes por dia e localidade com as ordens).
+ */
+public class ResultIndex {
+
+    /**
+     * Métrica diária consultada.
+     */
+    public enum Metric {
+        MIN, MAX, MEAN
+    }
+
+    /**
+     * Valor de uma métrica em um dia de uma localidade.
+     */
+    public static class DayValue {
+        private final String location;
+        private final LocalDate date;
+        private final double value;
+
+        DayValue(String location, LocalDate date, double value) {
+            this.location = location;
+            this.date = date;
+            this.value = value;
+        }
+
+        public String getLocation() { return location; }
+        public LocalDate getDate() { return date; }
+        public double getValue() { return value; }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s %.2f", location, date, value);
+        }
+    }
+
+    /**
+     * Valor agregado de uma localidade em um intervalo.
+     */
+    public static class LocationValue {
+        private final String location;
+        private final double value;
+
+        LocationValue(String location, double value) {
+            this.location = location;
+            this.value = value;
+        }
+
+        public String getLocation() { return location; }
+        public double getValue() { return value; }
+
+        @Override
+        public String toString() {
+            return String.format("%s %.2f", location, value);
+        }
+    }
+
+    private final String[] names;
+    private final Map<String, Integer> ordinals;
+    private final LocalDate firstDay;
+    private final int days;
+
+    // Colunas por métrica (na ordem de Metric), com a localidade na dimensão externa: [localidade * days + dia]
+    private final double[][] columns;
+    // Somas prefixadas das médias válidas e contagem de dias válidos: [localidade * (days + 1) + dia]
+    private final double[] meanPrefixSum;
+    private final int[] meanPrefixCount;
+    // Árvores de segmentos iterativas (folhas em [days, 2 * days)): [localidade * 2 * days + nó]
+    private final double[] maxTree;
+    private final double[] minTree;
+
+    // Ordem crescente das localidades em cada dia ([dia * localidades + posição]) e quantas têm valor no dia
+    private final int[][] dayOrders = new int[Metric.values().length][];
+    private final int[][] dayValidCounts = new int[Metric.values().length][];
+
+    private ResultIndex(String[] names, LocalDate firstDay, int days, double[][] columns) {
+        this.names = names;
+        this.ordinals = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            ordinals.put(names[i], i);
+        }
+        this.firstDay = firstDay;
+        this.days = days;
+        this.columns = columns;
+
+        int locations = names.length;
+        double[] mean = columns[Metric.MEAN.ordinal()];
+        meanPrefixSum = new double[locations * (days + 1)];
+        meanPrefixCount = new int[locations * (days + 1)];
+        for (int location = 0; location < locations; location++) {
+            int base = location * (days + 1);
+            for (int day = 0; day < days; day++) {
+                double value = mean[location * days + day];
+                boolean present = !Double.isNaN(value);
+                meanPrefixSum[base + day + 1] = meanPrefixSum[base + day] + (present ? value : 0.0);
+                meanPrefixCount[base + day + 1] = meanPrefixCount[base + day] + (present ? 1 : 0);
+            }
+        }
+        maxTree = buildTree(columns[Metric.MAX.ordinal()], true);
+        minTree = buildTree(columns[Metric.MIN.ordinal()], false);
+    }
+
+    /**
+     * Monta o índice com os dados atuais do store. Com um ColumnarResultStore as colunas são lidas
+     * diretamente; com o ResultStore original, o período vai do primeiro ao último dia presente.
+     */
+    public static ResultIndex build(ResultStore store) {
+        if (store instanceof ColumnarResultStore) {
+            return fromColumnar((ColumnarResultStore) store);
+        }
+        Map<String, Map<LocalDate, WeatherDataProcessor.DailyStats>> allData = store.getAllCapitalsData();
+        String[] names = allData.keySet().toArray(new String[0]);
+        Arrays.sort(names);
+        LocalDate first = null;
+        LocalDate last = null;
+        for (Map<LocalDate, WeatherDataProcessor.DailyStats> daily : allData.values()) {
+            for (LocalDate date : daily.keySet()) {
+                first = first == null || date.isBefore(first) ? date : first;
+                last = last == null || date.isAfter(last) ? date : last;
+            }
+        }
+        if (first == null) {
+            return new ResultIndex(new String[0], LocalDate.EPOCH, 0, new double[][] {new double[0], new double[0], new double[0]});
+        }
+
+        int days = (int) ChronoUnit.DAYS.between(first, last) + 1;
+        double[][] columns = newColumns(names.length, days);
+        for (int location = 0; location < names.length; location++) {
+            for (Map.Entry<LocalDate, WeatherDataProcessor.DailyStats> entry : allData.get(names[location]).entrySet()) {
+                int index = location * days + (int) ChronoUnit.DAYS.between(first, entry.getKey());
+                WeatherDataProcessor.DailyStats stats = entry.getValue();
+                columns[Metric.MIN.ordinal()][index] = stats.getMin();
+                columns[Metric.MAX.ordinal()][index] = stats.getMax();
+                columns[Metric.MEAN.ordinal()][index] = stats.getMean();
+            }
+        }
+        return new ResultIndex(names, first, days, columns);
+    }
+
+    private static ResultIndex fromColumnar(ColumnarResultStore store) {
+        // Localidades registradas mas sem nenhum dia com dados ficam fora do índice
+        int[] withData = new int[store.getLocationCount()];
+        int locations = 0;
+        for (int source = 0; source < withData.length; source++) {
+            if (store.hasData(source)) {
+                withData[locations++] = source;
+            }
+        }
+        int days = store.getDays();
+        String[] names = new String[locations];
+        double[][] columns = newColumns(locations, days);
+        for (int location = 0; location < locations; location++) {
+            int source = withData[location];
+            names[location] = store.getLocationName(source);
+            for (int day = 0; day < days; day++) {
+                int index = location * days + day;
+                columns[Metric.MIN.ordinal()][index] = store.getMin(source, day);
+                columns[Metric.MAX.ordinal()][index] = store.getMax(source, day);
+                columns[Metric.MEAN.ordinal()][index] = store.getMean(source, day);
+            }
+        }
+        return new ResultIndex(names, store.getFirstDay(), days, columns);
+    }
+
+    private static double[][] newColumns(int locations, int days) {
+        double[][] columns = new double[Metric.values().length][locations * days];
+        for (double[] column : columns) {
+            Arrays.fill(column, Double.NaN);
+        }
+        return columns;
+    }
+
+    /**
+     * Árvore de segmentos de máximos (ou mínimos) por localidade; dias sem dados viram -∞ (ou +∞).
+     */
+    private double[] buildTree(double[] column, boolean max) {
+        double empty = max ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        double[] tree = new double[names.length * 2 * days];
+        for (int location = 0; location < names.length; location++) {
+            int base = location * 2 * days;
+            for (int day = 0; day < days; day++) {
+                double value = column[location * days + day];
+                tree[base + days + day] = Double.isNaN(value) ? empty : value;
+            }
+            for (int node = days - 1; node >= 1; node--) {
+                double left = tree[base + 2 * node];
+                double right = tree[base + 2 * node + 1];
+                tree[base + node] = max ? Math.max(left, right) : Math.min(left, right);
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Consulta [fromDay, toDay] (inclusive) na árvore de uma localidade.
+     */
+    private double queryTree(double[] tree, int location, int fromDay, int toDay, boolean max) {
+        double result = max ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        int base = location * 2 * days;
+        for (int left = fromDay + days, right = toDay + days + 1; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                double value = tree[base + left++];
+                result = max ? Math.max(result, value) : Math.min(result, value);
+            }
+            if ((right & 1) == 1) {
+                double value = tree[base + --right];
+                result = max ? Math.max(result, value) : Math.min(result, value);
+            }
+        }
+        return Double.isInfinite(result) ? Double.NaN : result;
+    }
+
+    public LocalDate getFirstDay() { return firstDay; }
+    public int getDays() { return days; }
+    public int getLocationCount() { return names.length; }
+
+    /**
+     * Valor de uma métrica em um dia, ou NaN se não houver dados.
+     */
+    public double get(String location, LocalDate date, Metric metric) {
+        int ordinal = ordinalOf(location);
+        int day = dayOf(date);
+        if (ordinal < 0 || day < 0 || day >= days) {
+            return Double.NaN;
+        }
+        return columns[metric.ordinal()][ordinal * days + day];
+    }
+
+    /**
+     * Maior máxima diária de uma localidade no intervalo, ou NaN sem dados. O(log dias).
+     */
+    public double rangeMax(String location, LocalDate from, LocalDate to) {
+        int ordinal = ordinalOf(location);
+        int[] range = clamp(from, to);
+        return ordinal < 0 || range == null ? Double.NaN : queryTree(maxTree, ordinal, range[0], range[1], true);
+    }
+
+    /**
+     * Menor mínima diária de uma localidade no intervalo, ou NaN sem dados. O(log dias).
+     */
+    public double rangeMin(String location, LocalDate from, LocalDate to) {
+        int ordinal = ordinalOf(location);
+        int[] range = clamp(from, to);
+        return ordinal < 0 || range == null ? Double.NaN : queryTree(minTree, ordinal, range[0], range[1], false);
+    }
+
+    /**
+     * Média das médias diárias de uma localidade no intervalo (dias sem dados são ignorados). O(1).
+     */
+    public double rangeMean(String location, LocalDate from, LocalDate to) {
+        return regionMean(List.of(location), from, to);
+    }
+
+    /**
+     * Média das médias diárias de um conjunto de localidades (uma região) no intervalo,
+     * com o mesmo peso para cada dia com dados. O(localidades da região), pelas somas prefixadas.
+     * @return NaN se nenhuma localidade tiver dados no intervalo.
+     */
+    public double regionMean(Collection<String> locations, LocalDate from, LocalDate to) {
+        int[] range = clamp(from, to);
+        if (range == null) {
+            return Double.NaN;
+        }
+        double sum = 0.0;
+        long count = 0;
+        for (String location : locations) {
+            int ordinal = ordinalOf(location);
+            if (ordinal < 0) {
+                continue;
+            }
+            int base = ordinal * (days + 1);
+            sum += meanPrefixSum[base + range[1] + 1] - meanPrefixSum[base + range[0]];
+            count += meanPrefixCount[base + range[1] + 1] - meanPrefixCount[base + range[0]];
+        }
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    /**
+     * Localidades cuja máxima diária passou de threshold em algum dia do intervalo,
+     * com a maior máxima de cada uma, da maior para a menor. O(localidades × log dias).
+     */
+    public List<LocationValue> locationsAbove(double threshold, LocalDate from, LocalDate to) {
+        List<LocationValue> result = new ArrayList<>();
+        int[] range = clamp(from, to);
+        if (range == null) {
+            return result;
+        }
+        for (int location = 0; location < names.length; location++) {
+            double max = queryTree(maxTree, location, range[0], range[1], true);
+            if (max > threshold) {
+                result.add(new LocationValue(names[location], max));
+            }
+        }
+        result.sort((a, b) -> Double.compare(b.value, a.value));
+        return result;
+    }
+
+    /**
+     * Localidades cuja mínima diária ficou abaixo de threshold em algum dia do intervalo,
+     * com a menor mínima de cada uma, da menor para a maior.
+     */
+    public List<LocationValue> locationsBelow(double threshold, LocalDate from, LocalDate to) {
+        List<LocationValue> result = new ArrayList<>();
+        int[] range = clamp(from, to);
+        if (range == null) {
+            return result;
+        }
+        for (int location = 0; location < names.length; location++) {
+            double min = queryTree(minTree, location, range[0], range[1], false);
+            if (min < threshold) {
+                result.add(new LocationValue(names[location], min));
+            }
+        }
+        result.sort((a, b) -> Double.compare(a.value, b.value));
+        return result;
+    }
+
+    /**
+     * Localidades com a métrica acima de threshold em um dia, da maior para a menor.
+     * Busca binária na ordem do dia: O(log localidades + resultado).
+     */
+    public List<DayValue> locationsAbove(Metric metric, double threshold, LocalDate date) {
+        List<DayValue> result = new ArrayList<>();
+        int day = dayOf(date);
+        if (day < 0 || day >= days) {
+            return result;
+        }
+        int[] order = order(metric);
+        double[] column = columns[metric.ordinal()];
+        int base = day * names.length;
+        int valid = dayValidCounts[metric.ordinal()][day];
+        // Primeira posição com valor > threshold na ordem crescente
+        int low = 0;
+        int high = valid;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (column[order[base + middle] * days + day] > threshold) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        for (int position = valid - 1; position >= low; position--) {
+            int location = order[base + position];
+            result.add(new DayValue(names[location], date, column[location * days + day]));
+        }
+        return result;
+    }
+
+    /**
+     * Os k maiores valores da métrica entre todas as localidades e dias do intervalo
+     * (ex.: os 10 dias mais quentes com Metric.MAX), do maior para o menor.
+     * Intercala as ordens de cada dia com um heap: O(dias + k log dias).
+     */
+    public List<DayValue> top(Metric metric, int k, LocalDate from, LocalDate to) {
+        return select(metric, k, from, to, true);
+    }
+
+    /**
+     * Os k menores valores da métrica no intervalo (ex.: as madrugadas mais frias com Metric.MIN).
+     */
+    public List<DayValue> bottom(Metric metric, int k, LocalDate from, LocalDate to) {
+        return select(metric, k, from, to, false);
+    }
+
+    private List<DayValue> select(Metric metric, int k, LocalDate from, LocalDate to, boolean highest) {
+        List<DayValue> result = new ArrayList<>(Math.max(0, k));
+        int[] range = clamp(from, to);
+        if (range == null || k <= 0) {
+            return result;
+        }
+        int[] order = order(metric);
+        int[] validCounts = dayValidCounts[metric.ordinal()];
+        double[] column = columns[metric.ordinal()];
+        int locations = names.length;
+
+        // Cada entrada do heap é um cursor (dia, posição na ordem do dia), comparado pelo valor atual
+        PriorityQueue<int[]> heap = new PriorityQueue<>(Math.max(1, range[1] - range[0] + 1), (a, b) -> {
+            double va = column[order[a[0] * locations + a[1]] * days + a[0]];
+            double vb = column[order[b[0] * locations + b[1]] * days + b[0]];
+            return highest ? Double.compare(vb, va) : Double.compare(va, vb);
+        });
+        for (int day = range[0]; day <= range[1]; day++) {
+            if (validCounts[day] > 0) {
+                heap.add(new int[] {day, highest ? validCounts[day] - 1 : 0});
+            }
+        }
+        while (result.size() < k && !heap.isEmpty()) {
+            int[] cursor = heap.poll();
+            int day = cursor[0];
+            int location = order[day * locations + cursor[1]];
+            result.add(new DayValue(names[location], firstDay.plusDays(day), column[location * days + day]));
+            cursor[1] += highest ? -1 : 1;
+            if (cursor[1] >= 0 && cursor[1] < validCounts[day]) {
+                heap.add(cursor);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Ordem crescente das localidades em cada dia para a métrica, montada na primeira consulta.
+     * Dias sem dados de uma localidade a deixam de fora da ordem daquele dia.
+     */
+    private synchronized int[] order(Metric metric) {
+        int[] order = dayOrders[metric.ordinal()];
+        if (order != null) {
+            return order;
+        }
+        int locations = names.length;
+        double[] column = columns[metric.ordinal()];
+        order = new int[days * locations];
+        int[] validCounts = new int[days];
+        long[] keys = new long[locations];
+        for (int day = 0; day < days; day++) {
+            // Ordena pela chave (bits ordenáveis do float do valor, ordinal) sem boxing;
+            // a inserção seguinte corrige valores distintos que colidem na precisão do float
+            int valid = 0;
+            for (int location = 0; location < locations; location++) {
+                double value = column[location * days + day];
+                if (!Double.isNaN(value)) {
+                    int bits = Float.floatToIntBits((float) value);
+                    bits ^= (bits >> 31) & 0x7FFFFFFF;
+                    keys[valid++] = ((long) bits << 32) | location;
+                }
+            }
+            Arrays.sort(keys, 0, valid);
+            int base = day * locations;
+            for (int i = 0; i < valid; i++) {
+                int location = (int) keys[i];
+                double value = column[location * days + day];
+                int j = i;
+                while (j > 0 && column[order[base + j - 1] * days + day] > value) {
+                    order[base + j] = order[base + j - 1];
+                    j--;
+                }
+                order[base + j] = location;
+            }
+            validCounts[day] = valid;
+        }
+        dayValidCounts[metric.ordinal()] = validCounts;
+        dayOrders[metric.ordinal()] = order;
+        return order;
+    }
+
+    private int ordinalOf(String location) {
+        Integer ordinal = ordinals.get(location);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    private int dayOf(LocalDate date) {
+        long day = ChronoUnit.DAYS.between(firstDay, date);
+        return day < Integer.MIN_VALUE || day > Integer.MAX_VALUE ? -1 : (int) day;
+    }
+
+    /**
+     * Limita [from, to] ao período do índice.
+     * @return {primeiro dia, último dia} ou null se o intervalo não tem dias em comum com o índice.
+     */
+    private int[] clamp(LocalDate from, LocalDate to) {
+        long start = Math.max(0, ChronoUnit.DAYS.between(firstDay, from));
+        long end = Math.min(days - 1L, ChronoUnit.DAYS.between(firstDay, to));
+        return start > end ? null : new int[] {(int) start, (int) end};
+    }
+}
@@ -1,9 +1,14 @@
 package com.avaliacao;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
  * Armazena os resultados de todos os experimentos.
@@ -13,21 +18,177 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ResultStore {
     
     private final Map<String, Map<LocalDate, WeatherDataProcessor.DailyStats>> allCapitalsData;
+    // Intervalos de dias já buscados por capital, com o instante da busca
+    private final Map<String, Coverage> coverage;
 
     public ResultStore() {
         // Usa ConcurrentHashMap para segurança em ambientes concorrentes
         this.allCapitalsData = new ConcurrentHashMap<>();
+        this.coverage = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Cobertura de uma capital: intervalos disjuntos de dias, indexados pelo primeiro dia,
+     * cada um com o instante em que foi buscado.
+     */
+    private static class Coverage {
+        private final TreeMap<LocalDate, Span> spans = new TreeMap<>();
+    }
+
+    private static class Span {
+        private final LocalDate start;
+        private final LocalDate end;
+        private final Instant fetchedAt;
+
+        Span(LocalDate start, LocalDate end, Instant fetchedAt) {
+            this.start = start;
+            this.end = end;
+            this.fetchedAt = fetchedAt;
+        }
     }
 
     /**
      * Adiciona os dados processados de uma capital ao mapa de resultados.
-     * @param capitalName O nome da capital.
+     * @param capitalName O nome da capital (nos catálogos, o id da localidade, único mesmo entre homônimas).
      * @param data O mapa contendo os dados diários (stats) da capital.
      */
     public void addCapitalData(String capitalName, Map<LocalDate, WeatherDataProcessor.DailyStats> data) {
         this.allCapitalsData.put(capitalName, data);
     }
 
+    /**
+     * Acrescenta dias aos dados já armazenados de uma capital, em vez de substituí-los.
+     * Usado quando o período é buscado em partes que chegam fora de ordem; os dias ficam ordenados por data.
+     * @param capitalName O nome da capital.
+     * @param data Os dados diários a acrescentar (dias repetidos são sobrescritos).
+     */
+    public void mergeCapitalData(String capitalName, Map<LocalDate, WeatherDataProcessor.DailyStats> data) {
+        this.allCapitalsData.compute(capitalName, (name, existing) -> {
+            Map<LocalDate, WeatherDataProcessor.DailyStats> merged = existing instanceof ConcurrentSkipListMap
+                    ? existing
+                    : new ConcurrentSkipListMap<>(existing == null ? Collections.emptyMap() : existing);
+            merged.putAll(data);
+            return merged;
+        });
+    }
+
+    /**
+     * Registra que os dias [from, to] de uma capital foram buscados no instante fetchedAt.
+     * Intervalos anteriores sobrepostos são recortados; intervalos vizinhos buscados no mesmo instante são unidos.
+     */
+    public void markCovered(String capitalName, LocalDate from, LocalDate to, Instant fetchedAt) {
+        Coverage locationCoverage = coverage.computeIfAbsent(capitalName, name -> new Coverage());
+        synchronized (locationCoverage) {
+            TreeMap<LocalDate, Span> spans = locationCoverage.spans;
+            LocalDate start = from;
+            LocalDate end = to;
+
+            // Recorta ou remove os intervalos que se sobrepõem a [from, to]
+            Map.Entry<LocalDate, Span> entry = spans.floorEntry(to);
+            while (entry != null && !entry.getValue().end.isBefore(from)) {
+                Span span = entry.getValue();
+                spans.remove(span.start);
+                if (span.start.isBefore(from)) {
+                    spans.put(span.start, new Span(span.start, from.minusDays(1), span.fetchedAt));
+                }
+                if (span.end.isAfter(to)) {
+                    spans.put(to.plusDays(1), new Span(to.plusDays(1), span.end, span.fetchedAt));
+                }
+                entry = spans.lowerEntry(span.start);
+            }
+
+            // Une com os vizinhos imediatos buscados no mesmo instante
+            Map.Entry<LocalDate, Span> before = spans.lowerEntry(start);
+            if (before != null && before.getValue().end.plusDays(1).equals(start) && before.getValue().fetchedAt.equals(fetchedAt)) {
+                start = before.getValue().start;
+                spans.remove(start);
+            }
+            Span after = spans.get(end.plusDays(1));
+            if (after != null && after.fetchedAt.equals(fetchedAt)) {
+                end = after.end;
+                spans.remove(after.start);
+            }
+            spans.put(start, new Span(start, end, fetchedAt));
+        }
+    }
+
+    /**
+     * Calcula os intervalos de [from, to] que precisam ser buscados para uma capital: os dias nunca buscados
+     * e os dias a partir de staleFrom cuja busca é anterior a fetchedBefore (dados recentes podem ser revisados pela API).
+     * @param staleFrom Primeiro dia considerado recente (null para nunca considerar dias desatualizados).
+     * @param fetchedBefore Buscas anteriores a este instante deixam os dias recentes desatualizados.
+     * @return Os intervalos a buscar, em ordem e sem sobreposição.
+     */
+    public List<DateRange> findMissing(String capitalName, LocalDate from, LocalDate to,
+                                       LocalDate staleFrom, Instant fetchedBefore) {
+        List<DateRange> missing = new ArrayList<>();
+        Coverage locationCoverage = coverage.get(capitalName);
+        if (locationCoverage == null) {
+            missing.add(new DateRange(from, to));
+            return missing;
+        }
+        synchronized (locationCoverage) {
+            LocalDate cursor = from;
+            LocalDate first = locationCoverage.spans.floorKey(from);
+            for (Span span : locationCoverage.spans.tailMap(first == null ? from : first, true).values()) {
+                if (span.start.isAfter(to)) {
+                    break;
+                }
+                if (span.end.isBefore(cursor)) {
+                    continue;
+                }
+                // Lacuna antes do intervalo
+                if (span.start.isAfter(cursor)) {
+                    addRange(missing, cursor, span.start.minusDays(1));
+                    cursor = span.start;
+                }
+                LocalDate spanEnd = span.end.isAfter(to) ? to : span.end;
+                // Parte recente do intervalo, se a busca estiver desatualizada
+                if (staleFrom != null && span.fetchedAt.isBefore(fetchedBefore) && !spanEnd.isBefore(staleFrom)) {
+                    addRange(missing, cursor.isAfter(staleFrom) ? cursor : staleFrom, spanEnd);
+                }
+                cursor = spanEnd.plusDays(1);
+                if (cursor.isAfter(to)) {
+                    break;
+                }
+            }
+            if (!cursor.isAfter(to)) {
+                addRange(missing, cursor, to);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Acrescenta um intervalo, unindo-o ao anterior quando forem contíguos.
+     */
+    private static void addRange(List<DateRange> ranges, LocalDate start, LocalDate end) {
+        if (!ranges.isEmpty()) {
+            DateRange last = ranges.get(ranges.size() - 1);
+            if (last.getEnd().plusDays(1).equals(start)) {
+                ranges.set(ranges.size() - 1, new DateRange(last.getStart(), end));
+                return;
+            }
+        }
+        ranges.add(new DateRange(start, end));
+    }
+
+    /**
+     * @return Os intervalos de dias já buscados de uma capital, em ordem.
+     */
+    public List<DateRange> getCoverage(String capitalName) {
+        List<DateRange> ranges = new ArrayList<>();
+        Coverage locationCoverage = coverage.get(capitalName);
+        if (locationCoverage != null) {
+            synchronized (locationCoverage) {
+                for (Span span : locationCoverage.spans.values()) {
+                    ranges.add(new DateRange(span.start, span.end));
+                }
+            }
+        }
+        return ranges;
+    }
+
     /**
      * Retorna uma visão não modificável de todos os dados armazenados.
      * @return Um mapa com todos os dados das capitais.
@@ -41,5 +202,6 @@ public class ResultStore {
      */
     public void clear() {
         this.allCapitalsData.clear();
+        this.coverage.clear();
     }
 }
\ No newline at end of file
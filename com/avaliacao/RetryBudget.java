@@ -0,0 +1,64 @@
+package com.avaliacao;
+
+/**
+ * Orçamento global de tentativas extras (repetições e requisições de hedging).
+ * Cada requisição original deposita ratio fichas e cada tentativa extra consome uma ficha inteira,
+ * de modo que, em regime, as tentativas extras não passam de ratio vezes o tráfego original
+ * (com ratio 0,1, no máximo 10% a mais de carga no servidor), mesmo quando todas as requisições falham.
+ * O saldo começa cheio e nunca passa de maxTokens, para que um período longo sem falhas
+ * não acumule fichas suficientes para uma rajada de repetições.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+
+    // Protegidos por this
+    private double tokens;
+    private long granted;
+    private long denied;
+
+    /**
+     * @param ratio Fichas depositadas por requisição original (fração de carga extra permitida).
+     * @param maxTokens Saldo máximo (e inicial), ou seja, a maior rajada de tentativas extras.
+     */
+    public RetryBudget(double ratio, double maxTokens) {
+        if (ratio < 0 || maxTokens < 1) {
+            throw new IllegalArgumentException("Orçamento inválido: proporção " + ratio + ", saldo máximo " + maxTokens);
+        }
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+    }
+
+    /**
+     * Registra uma requisição original, depositando ratio fichas.
+     */
+    public synchronized void deposit() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    /**
+     * Consome uma ficha para uma tentativa extra, se houver saldo.
+     * @return false se o orçamento está esgotado e a tentativa não deve ser feita.
+     */
+    public synchronized boolean tryAcquire() {
+        if (tokens < 1.0) {
+            denied++;
+            return false;
+        }
+        tokens -= 1.0;
+        granted++;
+        return true;
+    }
+
+    public synchronized double getTokens() { return tokens; }
+    public synchronized long getGranted() { return granted; }
+    public synchronized long getDenied() { return denied; }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Orçamento de tentativas: %.1f/%.0f fichas (concedidas: %d, negadas: %d)",
+                tokens, maxTokens, granted, denied);
+    }
+}
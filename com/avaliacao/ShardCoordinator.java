@@ -0,0 +1,278 @@
+package com.avaliacao;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordenador do modo distribuído: divide o catálogo de localidades em N shards, inicia um
+ * ShardWorker por shard em JVMs separadas (ProcessBuilder), espera todos terminarem, une os
+ * snapshots parciais em um único ColumnarResultStore e informa o throughput agregado.
+ * Propriedades de sistema:
+ * <ul>
+ *   <li>shard.count (4), shard.strategy (hash ou range), shard.dir (diretório dos snapshots e logs),
+ *       shard.start/shard.end, shard.threads, shard.chunkSize, shard.timeoutMinutes (60) e catalog.path;</li>
+ *   <li>shard.replay=true inicia um ReplayServer local (configurado pelas propriedades replay.*)
+ *       e aponta os workers para ele, para testar vários processos sem rede;</li>
+ *   <li>shard.launch=false não inicia workers: só une os snapshots já presentes em shard.dir
+ *       (por exemplo, copiados de workers executados em outras máquinas).</li>
+ * </ul>
+ */
+public class ShardCoordinator {
+
+    private static final int DEFAULT_SHARDS = 4;
+    private static final long DEFAULT_TIMEOUT_MINUTES = 60;
+    // Propriedades repassadas do coordenador para os workers
+    private static final String[] FORWARDED_PREFIXES = {"shard.", "catalog.", "weather.api.", "aggregation."};
+
+    private final int shardCount;
+    private final ShardWorker.Strategy strategy;
+    private final Path directory;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    // Localidades com dados em cada snapshot, preenchido por merge
+    private int[] storedSizes;
+
+    public ShardCoordinator(int shardCount, ShardWorker.Strategy strategy, Path directory, LocalDate startDate, LocalDate endDate) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("É preciso ao menos um shard: " + shardCount);
+        }
+        this.shardCount = shardCount;
+        this.strategy = strategy;
+        this.directory = directory;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.storedSizes = new int[shardCount];
+    }
+
+    public Path snapshotOf(int shard) {
+        return directory.resolve("shard-" + shard + ".bin");
+    }
+
+    public Path logOf(int shard) {
+        return directory.resolve("shard-" + shard + ".log");
+    }
+
+    /**
+     * Inicia os workers, um processo por shard, e espera todos terminarem.
+     * A saída de cada worker vai para shard-N.log no diretório.
+     * @param extraProperties Propriedades adicionais para os workers (ex.: weather.api.baseUrl=...).
+     * @return A duração de cada processo em nanossegundos, ou -1 para os que falharam ou expiraram.
+     */
+    public long[] launchWorkers(List<String> extraProperties, long timeout, TimeUnit unit) throws IOException, InterruptedException {
+        Files.createDirectories(directory);
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> processes = new ArrayList<>();
+        // Momento em que cada processo termina, registrado ao sair (e não quando é aguardado, que é em ordem)
+        List<CompletableFuture<Long>> exits = new ArrayList<>();
+        long[] starts = new long[shardCount];
+        for (int shard = 0; shard < shardCount; shard++) {
+            Files.deleteIfExists(snapshotOf(shard));
+            List<String> command = new ArrayList<>();
+            command.add(java);
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            for (String name : System.getProperties().stringPropertyNames()) {
+                if (isForwarded(name)) {
+                    command.add("-D" + name + "=" + System.getProperty(name));
+                }
+            }
+            for (String property : extraProperties) {
+                command.add("-D" + property);
+            }
+            command.add("-Dshard.index=" + shard);
+            command.add("-Dshard.count=" + shardCount);
+            command.add("-Dshard.strategy=" + strategy);
+            command.add("-Dshard.output=" + snapshotOf(shard).toAbsolutePath());
+            command.add("-Dshard.start=" + startDate);
+            command.add("-Dshard.end=" + endDate);
+            command.add(ShardWorker.class.getName());
+
+            File log = logOf(shard).toFile();
+            starts[shard] = System.nanoTime();
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.to(log))
+                    .start();
+            processes.add(process);
+            exits.add(process.onExit().thenApply(exited -> System.nanoTime()));
+        }
+
+        long[] durations = new long[shardCount];
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int shard = 0; shard < shardCount; shard++) {
+            Process process = processes.get(shard);
+            boolean finished = process.waitFor(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (!finished) {
+                process.destroyForcibly();
+                System.err.println("Shard " + shard + " excedeu o tempo limite e foi encerrado (log em " + logOf(shard) + ")");
+                durations[shard] = -1;
+            } else if (process.exitValue() != 0) {
+                System.err.println("Shard " + shard + " terminou com código " + process.exitValue() + " (log em " + logOf(shard) + ")");
+                durations[shard] = -1;
+            } else {
+                durations[shard] = exits.get(shard).join() - starts[shard];
+            }
+        }
+        return durations;
+    }
+
+    private static boolean isForwarded(String name) {
+        if (name.equals("shard.index") || name.equals("shard.output") || name.equals("shard.launch") || name.equals("shard.replay")) {
+            return false;
+        }
+        for (String prefix : FORWARDED_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Une os snapshots presentes no diretório em um store do período. Shards sem snapshot são informados e ignorados.
+     * Cada snapshot é mapeado em memória e copiado pelos ids das localidades (gravados na tabela de nomes
+     * do snapshot), então homônimas de shards diferentes continuam distintas, e uma mesma localidade
+     * presente em dois snapshots (ex.: reexecuções) simplesmente sobrescreve os mesmos dias.
+     */
+    public ColumnarResultStore merge() throws IOException {
+        ColumnarResultStore merged = new ColumnarResultStore(startDate, endDate);
+        int[] stored = new int[shardCount];
+        for (int shard = 0; shard < shardCount; shard++) {
+            Path snapshot = snapshotOf(shard);
+            if (!Files.exists(snapshot)) {
+                System.err.println("Shard " + shard + " sem snapshot em " + snapshot + "; seus resultados ficam de fora");
+                stored[shard] = -1;
+                continue;
+            }
+            ColumnarResultStore partial = ColumnarResultStore.mapSnapshot(snapshot);
+            stored[shard] = locationsWithData(partial);
+            merged.copyFrom(partial);
+        }
+        storedSizes = stored;
+        return merged;
+    }
+
+    /**
+     * @return Quantas localidades com dados havia no snapshot de cada shard no último merge
+     *         (-1 para shards sem snapshot).
+     */
+    public int[] getStoredSizes() {
+        return storedSizes.clone();
+    }
+
+    /**
+     * @return Quantas localidades do catálogo (contadas por id, como nos snapshots) pertencem a cada shard.
+     */
+    public int[] expectedSizes(LocationCatalog catalog) {
+        List<Set<String>> ids = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            ids.add(new HashSet<>());
+        }
+        for (int i = 0; i < catalog.size(); i++) {
+            ids.get(ShardWorker.shardOf(catalog, i, shardCount, strategy)).add(catalog.id(i));
+        }
+        int[] sizes = new int[shardCount];
+        for (int shard = 0; shard < shardCount; shard++) {
+            sizes[shard] = ids.get(shard).size();
+        }
+        return sizes;
+    }
+
+    /**
+     * @return Quantas localidades do catálogo (contadas por id) não têm nenhum dia com dados no store unido.
+     *         Uma localidade cujas respostas vieram vazias conta como ausente, mesmo que tenha sido registrada.
+     */
+    public static int countMissing(LocationCatalog catalog, ColumnarResultStore merged) {
+        Set<String> missing = new HashSet<>();
+        for (int i = 0; i < catalog.size(); i++) {
+            String id = catalog.id(i);
+            int ordinal = merged.ordinalOf(id);
+            if (ordinal < 0 || !merged.hasData(ordinal)) {
+                missing.add(id);
+            }
+        }
+        return missing.size();
+    }
+
+    /**
+     * @return Quantas localidades do store têm ao menos um dia com dados.
+     */
+    static int locationsWithData(ColumnarResultStore store) {
+        int count = 0;
+        for (int location = 0; location < store.getLocationCount(); location++) {
+            if (store.hasData(location)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int shardCount = Integer.getInteger("shard.count", DEFAULT_SHARDS);
+        ShardWorker.Strategy strategy = ShardWorker.Strategy.parse(System.getProperty("shard.strategy", "hash"));
+        Path directory = Path.of(System.getProperty("shard.dir", Path.of(System.getProperty("java.io.tmpdir"), "weather-shards").toString()));
+        LocalDate startDate = LocalDate.parse(System.getProperty("shard.start", ShardWorker.DEFAULT_START.toString()));
+        LocalDate endDate = LocalDate.parse(System.getProperty("shard.end", ShardWorker.DEFAULT_END.toString()));
+        ShardCoordinator coordinator = new ShardCoordinator(shardCount, strategy, directory, startDate, endDate);
+
+        LocationCatalog catalog = ShardWorker.loadCatalog();
+        int[] expected = coordinator.expectedSizes(catalog);
+        System.out.printf("--- Modo distribuído: %d localidades em %d shards (%s), de %s a %s ---\n",
+                catalog.size(), shardCount, strategy, startDate, endDate);
+
+        long start = System.nanoTime();
+        long[] durations = new long[0];
+        ReplayServer replay = null;
+        try {
+            if (!"false".equals(System.getProperty("shard.launch"))) {
+                List<String> extraProperties = new ArrayList<>();
+                if (Boolean.getBoolean("shard.replay")) {
+                    replay = ReplayServer.fromSystemProperties(0);
+                    replay.start();
+                    extraProperties.add("weather.api.baseUrl=" + replay.getBaseUrl());
+                    System.out.println("Workers usando o servidor de replay em " + replay.getBaseUrl());
+                }
+                durations = coordinator.launchWorkers(extraProperties,
+                        Long.getLong("shard.timeoutMinutes", DEFAULT_TIMEOUT_MINUTES), TimeUnit.MINUTES);
+            }
+        } finally {
+            if (replay != null) {
+                System.out.println(replay);
+                replay.close();
+            }
+        }
+        long mergeStart = System.nanoTime();
+        ColumnarResultStore merged = coordinator.merge();
+        long end = System.nanoTime();
+
+        int[] stored = coordinator.getStoredSizes();
+        for (int shard = 0; shard < durations.length; shard++) {
+            System.out.printf("Shard %d: %d de %d localidades com dados, %s\n", shard, Math.max(0, stored[shard]), expected[shard],
+                    durations[shard] < 0 ? "falhou" : String.format("%.1f s (%.1f localidades/s)",
+                            durations[shard] / 1e9, Math.max(0, stored[shard]) / (durations[shard] / 1e9)));
+        }
+        double seconds = (end - start) / 1e9;
+        int distinct = catalog.distinctIds();
+        int missing = countMissing(catalog, merged);
+        System.out.printf("Total: %d de %d localidades com dados, %d dias cada; %.1f s no total (união em %.0f ms), %.1f localidades/s\n",
+                distinct - missing, distinct, merged.getDays(), seconds, (end - mergeStart) / 1e6,
+                (distinct - missing) / seconds);
+
+        Path mergedSnapshot = directory.resolve("merged.bin");
+        merged.saveSnapshot(mergedSnapshot);
+        System.out.println("Resultados unidos gravados em " + mergedSnapshot);
+        if (missing > 0) {
+            System.err.println("União incompleta: " + missing + " localidades sem dados");
+            System.exit(1);
+        }
+    }
+}
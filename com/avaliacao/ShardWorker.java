@@ -0,0 +1,111 @@
+package com.avaliacao;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Processo de um shard no modo distribuído: seleciona a sua parte do catálogo de localidades,
+ * executa uma rodada do CatalogExperiment sobre ela e grava o resultado como snapshot do
+ * ColumnarResultStore, para o ShardCoordinator unir depois.
+ * Pode ser iniciado pelo coordenador (no mesmo host) ou manualmente em outras máquinas,
+ * com as mesmas propriedades de sistema:
+ * shard.index, shard.count, shard.strategy (hash ou range), shard.output (arquivo do snapshot),
+ * shard.start e shard.end (período), shard.threads, shard.chunkSize e, opcionalmente, catalog.path
+ * (sem ele, as 27 capitais) e weather.api.baseUrl (ex.: um ReplayServer).
+ */
+public class ShardWorker {
+
+    // Período padrão, o mesmo do App
+    static final LocalDate DEFAULT_START = LocalDate.of(2024, 1, 1);
+    static final LocalDate DEFAULT_END = LocalDate.of(2024, 1, 31);
+    private static final int DEFAULT_THREADS = 8;
+    private static final int DEFAULT_CHUNK_SIZE = 50;
+
+    /**
+     * Como as localidades são divididas entre os shards.
+     */
+    public enum Strategy {
+        /** Pelo hash das coordenadas: shards equilibrados e estáveis mesmo que o catálogo mude de ordem. */
+        HASH,
+        /** Por faixas contíguas da ordem do catálogo: cada shard recebe localidades vizinhas no arquivo. */
+        RANGE;
+
+        public static Strategy parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private ShardWorker() {
+    }
+
+    /**
+     * @return O shard da localidade na posição index do catálogo.
+     */
+    public static int shardOf(LocationCatalog catalog, int index, int shardCount, Strategy strategy) {
+        if (strategy == Strategy.RANGE) {
+            return (int) ((long) index * shardCount / catalog.size());
+        }
+        // Hash das coordenadas na precisão da URL (a mesma de WeatherRequestKey), misturado para espalhar os bits
+        long key = Math.round(catalog.latitude(index) * 10_000) * 31 + Math.round(catalog.longitude(index) * 10_000);
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(key ^ (key >>> 32), (long) shardCount);
+    }
+
+    /**
+     * @return Um catálogo só com as localidades do shard, na ordem original. Cada localidade leva como nome
+     * o seu id no catálogo completo, para que homônimas em shards diferentes continuem distintas na união.
+     */
+    public static LocationCatalog select(LocationCatalog catalog, int shardIndex, int shardCount, Strategy strategy) {
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException("Shard inválido: " + shardIndex + " de " + shardCount);
+        }
+        LocationCatalog.Builder builder = new LocationCatalog.Builder(catalog.size() / shardCount + 1);
+        for (int i = 0; i < catalog.size(); i++) {
+            if (shardOf(catalog, i, shardCount, strategy) == shardIndex) {
+                builder.add(catalog.id(i), catalog.latitude(i), catalog.longitude(i));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Carrega o catálogo de catalog.path ou, sem a propriedade, o das capitais.
+     */
+    static LocationCatalog loadCatalog() throws IOException {
+        String catalogPath = System.getProperty("catalog.path");
+        return catalogPath == null ? CapitalsData.getCatalog() : LocationCatalog.load(Path.of(catalogPath));
+    }
+
+    public static void main(String[] args) {
+        int shardIndex = Integer.getInteger("shard.index", 0);
+        int shardCount = Integer.getInteger("shard.count", 1);
+        Strategy strategy = Strategy.parse(System.getProperty("shard.strategy", "hash"));
+        Path output = Path.of(System.getProperty("shard.output", "shard-" + shardIndex + ".bin"));
+        LocalDate startDate = LocalDate.parse(System.getProperty("shard.start", DEFAULT_START.toString()));
+        LocalDate endDate = LocalDate.parse(System.getProperty("shard.end", DEFAULT_END.toString()));
+
+        try {
+            LocationCatalog shard = select(loadCatalog(), shardIndex, shardCount, strategy);
+            ColumnarResultStore store = new ColumnarResultStore(startDate, endDate);
+            CatalogExperiment experiment = new CatalogExperiment(shard, store, startDate, endDate,
+                    Integer.getInteger("shard.chunkSize", DEFAULT_CHUNK_SIZE), Integer.getInteger("shard.threads", DEFAULT_THREADS));
+            experiment.setStreamingParser(true);
+
+            long millis = experiment.runAndMeasureTime();
+            // Grava em um arquivo temporário e renomeia, para que o coordenador nunca leia um snapshot pela metade
+            Path temporary = output.resolveSibling(output.getFileName() + ".tmp");
+            store.saveSnapshot(temporary);
+            Files.move(temporary, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            System.out.printf("Shard %d/%d (%s): %d de %d localidades com dados em %d ms (%s) -> %s\n",
+                    shardIndex, shardCount, strategy, ShardCoordinator.locationsWithData(store), shard.size(), millis,
+                    experiment.getRequestLatencies(), output);
+        } catch (Exception e) {
+            System.err.println("Erro no shard " + shardIndex + "/" + shardCount + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
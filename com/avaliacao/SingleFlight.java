@@ -0,0 +1,109 @@
+package com.avaliacao;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa chamadas simultâneas com a mesma chave em uma única execução ("single-flight").
+ * A primeira chamada executa a operação; as que chegam enquanto ela está em andamento recebem
+ * o mesmo resultado (ou o mesmo erro), sem executar de novo. Assim que a operação termina, a chave
+ * é liberada: chamadas posteriores executam outra vez, ou seja, isto não é um cache.
+ * @param <K> O tipo da chave (deve implementar equals e hashCode).
+ * @param <V> O tipo do resultado, compartilhado entre as chamadas agrupadas (não deve ser alterado).
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+
+    /**
+     * Versão assíncrona: a operação devolve um CompletableFuture, que é compartilhado.
+     * Cada chamador recebe uma cópia, para que o cancelamento de um não afete os demais.
+     * @param call Dispara a operação; só é chamado se não houver outra em andamento para a chave.
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            deduplicated.increment();
+            return existing.copy();
+        }
+        executions.increment();
+        try {
+            call.get().whenComplete((value, error) -> finish(key, flight, value, error));
+        } catch (RuntimeException e) {
+            finish(key, flight, null, e);
+        }
+        return flight.copy();
+    }
+
+    /**
+     * Versão bloqueante: a operação roda na thread da primeira chamada, e as demais aguardam o resultado.
+     * @throws Exception O erro da operação, o mesmo para todas as chamadas agrupadas.
+     */
+    public V call(K key, Callable<V> call) throws Exception {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            deduplicated.increment();
+            try {
+                return existing.get();
+            } catch (ExecutionException e) {
+                throw AsyncWeatherApiClient.unwrap(e.getCause());
+            }
+        }
+        executions.increment();
+        try {
+            V value = call.call();
+            finish(key, flight, value, null);
+            return value;
+        } catch (Exception | Error e) {
+            finish(key, flight, null, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Libera a chave antes de completar o resultado, para que uma chamada que chegue depois
+     * da conclusão não receba um resultado já entregue.
+     */
+    private void finish(K key, CompletableFuture<V> flight, V value, Throwable error) {
+        inFlight.remove(key, flight);
+        if (error != null) {
+            flight.completeExceptionally(error);
+        } else {
+            flight.complete(value);
+        }
+    }
+
+    /**
+     * @return Quantidade de operações em andamento.
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * @return Quantidade de operações de fato executadas.
+     */
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    /**
+     * @return Quantidade de chamadas atendidas pela operação de outra chamada, sem executar.
+     */
+    public long getDeduplicated() {
+        return deduplicated.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("execuções: %d, agrupadas: %d", getExecutions(), getDeduplicated());
+    }
+}
@@ -0,0 +1,89 @@
+package com.avaliacao;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Métricas de um estágio do pipeline: itens processados, tempo ocupado dos workers,
+ * profundidade da fila de entrada e tempo bloqueado por backpressure na fila de saída.
+ * Os contadores são atualizados de forma concorrente pelos workers do estágio.
+ */
+public class StageStats {
+
+    private final String name;
+    private final int workers;
+    private final BlockingQueue<?> inputQueue;
+
+    private final AtomicLong items = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+    private final AtomicLong blockedNanos = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    /**
+     * @param inputQueue A fila de onde o estágio consome (null para o primeiro estágio).
+     */
+    public StageStats(String name, int workers, BlockingQueue<?> inputQueue) {
+        this.name = name;
+        this.workers = workers;
+        this.inputQueue = inputQueue;
+    }
+
+    void markStarted() {
+        startNanos = System.nanoTime();
+    }
+
+    void markFinished() {
+        endNanos = System.nanoTime();
+    }
+
+    /**
+     * Registra um item processado e o tempo gasto nele.
+     */
+    void recordItem(long nanos) {
+        items.incrementAndGet();
+        busyNanos.addAndGet(nanos);
+    }
+
+    /**
+     * Registra o tempo que um worker ficou parado esperando espaço na fila seguinte.
+     */
+    void recordBlocked(long nanos) {
+        blockedNanos.addAndGet(nanos);
+    }
+
+    /**
+     * Amostra a profundidade atual da fila de entrada, guardando o máximo observado.
+     */
+    void sampleQueueDepth() {
+        if (inputQueue != null) {
+            maxQueueDepth.accumulateAndGet(inputQueue.size(), Math::max);
+        }
+    }
+
+    public String getName() { return name; }
+    public int getWorkers() { return workers; }
+    public long getItems() { return items.get(); }
+    public int getQueueDepth() { return inputQueue == null ? 0 : inputQueue.size(); }
+    public int getMaxQueueDepth() { return maxQueueDepth.get(); }
+    public long getBlockedMillis() { return blockedNanos.get() / 1_000_000; }
+
+    /**
+     * @return A fração do tempo de parede em que os workers do estágio estiveram ocupados (0 a 1).
+     */
+    public double getUtilisation() {
+        long elapsed = (endNanos > 0 ? endNanos : System.nanoTime()) - startNanos;
+        if (startNanos == 0 || elapsed <= 0) {
+            return 0.0;
+        }
+        return Math.min(1.0, (double) busyNanos.get() / ((double) elapsed * workers));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-10s workers=%-3d itens=%-4d utilização=%5.1f%% fila(máx)=%-3d bloqueado=%d ms",
+                name, workers, getItems(), getUtilisation() * 100, getMaxQueueDepth(), getBlockedMillis());
+    }
+}
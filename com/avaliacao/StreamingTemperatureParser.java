@@ -0,0 +1,404 @@
+package com.avaliacao;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parser de streaming para as respostas da Open-Meteo.
+ * Lê os bytes diretamente do InputStream (ou ByteBuffer), localiza "hourly.temperature_2m"
+ * e escreve os valores em uma TemperatureSeries, sem montar String, árvore JSON ou objetos Double.
+ * Todos os demais campos da resposta são apenas percorridos e descartados.
+ *
+ * Uma instância reaproveita o seu buffer interno entre chamadas e não é thread-safe.
+ */
+public class StreamingTemperatureParser {
+
+    private static final byte[] HOURLY_KEY = "hourly".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TEMPERATURE_KEY = "temperature_2m".getBytes(StandardCharsets.US_ASCII);
+
+    // Potências de 10 exatamente representáveis em double (até 10^22)
+    private static final double[] POWERS_OF_TEN = new double[23];
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+        }
+    }
+    // Maior mantissa inteira que um double representa sem perda (2^53)
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final byte[] buffer = new byte[8192];
+    private int position;
+    private int limit;
+
+    // Apenas uma das fontes fica ativa durante um parse
+    private InputStream input;
+    private ByteBuffer byteSource;
+
+    // Área temporária para números que não cabem no caminho rápido
+    private final byte[] numberScratch = new byte[64];
+
+    /**
+     * Faz o parse de uma resposta lida de um InputStream. O stream não é fechado.
+     * @param in O corpo da resposta HTTP.
+     * @param target A série que receberá as temperaturas (é esvaziada antes).
+     * @return true se o campo hourly.temperature_2m foi encontrado.
+     */
+    public boolean parse(InputStream in, TemperatureSeries target) throws IOException {
+        reset(in, null);
+        try {
+            return parseResponseObject(target);
+        } finally {
+            reset(null, null);
+        }
+    }
+
+    /**
+     * Faz o parse de uma resposta já carregada em memória. A posição do ByteBuffer avança até o fim lido.
+     */
+    public boolean parse(ByteBuffer bytes, TemperatureSeries target) throws IOException {
+        reset(null, bytes);
+        try {
+            return parseResponseObject(target);
+        } finally {
+            reset(null, null);
+        }
+    }
+
+    /**
+     * Faz o parse de uma resposta com várias coordenadas. A API devolve um array de objetos,
+     * na mesma ordem das coordenadas da requisição (ou um único objeto, se houver só uma).
+     * @param in O corpo da resposta HTTP.
+     * @param targets As séries que receberão as temperaturas, uma por coordenada.
+     * @return A quantidade de objetos lidos na resposta.
+     */
+    public int parseBatch(InputStream in, TemperatureSeries[] targets) throws IOException {
+        reset(in, null);
+        try {
+            return parseResponseArray(targets);
+        } finally {
+            reset(null, null);
+        }
+    }
+
+    private int parseResponseArray(TemperatureSeries[] targets) throws IOException {
+        if (peekSkippingWhitespace() == '{') {
+            requireTarget(targets, 0);
+            parseResponseObject(targets[0]);
+            return 1;
+        }
+        expect('[');
+        if (peekSkippingWhitespace() == ']') {
+            read();
+            return 0;
+        }
+        int count = 0;
+        do {
+            requireTarget(targets, count);
+            parseResponseObject(targets[count++]);
+        } while (readCommaOrEnd(']'));
+        return count;
+    }
+
+    private static void requireTarget(TemperatureSeries[] targets, int index) throws IOException {
+        if (index >= targets.length) {
+            throw new IOException("A resposta da API contém mais localidades do que as " + targets.length + " solicitadas");
+        }
+    }
+
+    private void reset(InputStream in, ByteBuffer bytes) {
+        this.input = in;
+        this.byteSource = bytes;
+        this.position = 0;
+        this.limit = 0;
+    }
+
+    /**
+     * Percorre o objeto raiz da resposta, descendo apenas na chave "hourly".
+     */
+    boolean parseResponseObject(TemperatureSeries target) throws IOException {
+        target.clear();
+        boolean found = false;
+        expect('{');
+        if (peekSkippingWhitespace() == '}') {
+            read();
+            return false;
+        }
+        do {
+            boolean isHourly = readKeyEquals(HOURLY_KEY);
+            expect(':');
+            if (isHourly && peekSkippingWhitespace() == '{') {
+                found |= parseHourlyObject(target);
+            } else {
+                skipValue();
+            }
+        } while (readCommaOrEnd('}'));
+        return found;
+    }
+
+    /**
+     * Percorre o objeto "hourly", lendo apenas o array "temperature_2m".
+     */
+    private boolean parseHourlyObject(TemperatureSeries target) throws IOException {
+        boolean found = false;
+        expect('{');
+        if (peekSkippingWhitespace() == '}') {
+            read();
+            return false;
+        }
+        do {
+            boolean isTemperature = readKeyEquals(TEMPERATURE_KEY);
+            expect(':');
+            if (isTemperature && peekSkippingWhitespace() == '[') {
+                parseValueArray(target);
+                found = true;
+            } else {
+                skipValue();
+            }
+        } while (readCommaOrEnd('}'));
+        return found;
+    }
+
+    private void parseValueArray(TemperatureSeries target) throws IOException {
+        expect('[');
+        if (peekSkippingWhitespace() == ']') {
+            read();
+            return;
+        }
+        do {
+            int c = peekSkippingWhitespace();
+            if (c == 'n') {
+                expectLiteral("null");
+                target.addNull();
+            } else {
+                target.add(readNumber());
+            }
+        } while (readCommaOrEnd(']'));
+    }
+
+    /**
+     * Lê um número JSON. Números com até 18 dígitos e expoente pequeno são convertidos sem alocação;
+     * o resultado é exato porque mantissa e potência de 10 são representáveis em double.
+     */
+    private double readNumber() throws IOException {
+        int scratchLength = 0;
+        boolean negative = false;
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        int exponent = 0;
+        boolean exact = true;
+
+        int c = peek();
+        if (c == '-') {
+            negative = true;
+            numberScratch[scratchLength++] = (byte) read();
+            c = peek();
+        }
+        while (c >= '0' && c <= '9') {
+            scratchLength = appendScratch(scratchLength, read());
+            if (digits++ < 18) {
+                mantissa = mantissa * 10 + (c - '0');
+            } else {
+                exact = false;
+            }
+            c = peek();
+        }
+        if (c == '.') {
+            scratchLength = appendScratch(scratchLength, read());
+            c = peek();
+            while (c >= '0' && c <= '9') {
+                scratchLength = appendScratch(scratchLength, read());
+                if (digits++ < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    fractionDigits++;
+                } else {
+                    exact = false;
+                }
+                c = peek();
+            }
+        }
+        if (c == 'e' || c == 'E') {
+            scratchLength = appendScratch(scratchLength, read());
+            c = peek();
+            boolean negativeExponent = false;
+            if (c == '+' || c == '-') {
+                negativeExponent = c == '-';
+                scratchLength = appendScratch(scratchLength, read());
+                c = peek();
+            }
+            while (c >= '0' && c <= '9') {
+                scratchLength = appendScratch(scratchLength, read());
+                exponent = Math.min(exponent * 10 + (c - '0'), 10_000);
+                c = peek();
+            }
+            if (negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+        if (digits == 0) {
+            throw new IOException("Número JSON inválido na resposta da API");
+        }
+
+        int decimalExponent = exponent - fractionDigits;
+        if (exact && mantissa < MAX_EXACT_MANTISSA && Math.abs(decimalExponent) < POWERS_OF_TEN.length) {
+            double value = decimalExponent >= 0
+                    ? mantissa * POWERS_OF_TEN[decimalExponent]
+                    : mantissa / POWERS_OF_TEN[-decimalExponent];
+            return negative ? -value : value;
+        }
+        if (scratchLength >= numberScratch.length) {
+            throw new IOException("Número JSON longo demais na resposta da API");
+        }
+        // Caminho raro: delega ao parser da JDK
+        return Double.parseDouble(new String(numberScratch, 0, scratchLength, StandardCharsets.US_ASCII));
+    }
+
+    private int appendScratch(int length, int c) {
+        if (length < numberScratch.length) {
+            numberScratch[length] = (byte) c;
+        }
+        return length + 1;
+    }
+
+    /**
+     * Lê uma chave de objeto e compara seus bytes com a chave esperada, sem criar String.
+     */
+    private boolean readKeyEquals(byte[] expected) throws IOException {
+        expect('"');
+        boolean matches = true;
+        int index = 0;
+        int c;
+        while ((c = readRequired()) != '"') {
+            if (c == '\\') {
+                // Chaves procuradas não têm escapes; basta consumir o caractere escapado
+                readRequired();
+                matches = false;
+            } else if (index >= expected.length || expected[index] != (byte) c) {
+                matches = false;
+            }
+            index++;
+        }
+        return matches && index == expected.length;
+    }
+
+    /**
+     * Descarta o próximo valor JSON (string, número, literal, objeto ou array).
+     */
+    private void skipValue() throws IOException {
+        int c = peekSkippingWhitespace();
+        if (c == '"') {
+            read();
+            skipStringBody();
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                c = readRequired();
+                if (c == '"') {
+                    skipStringBody();
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            } while (depth > 0);
+        } else {
+            // Número ou literal (true, false, null)
+            while (c != -1 && c != ',' && c != '}' && c != ']' && !isWhitespace(c)) {
+                read();
+                c = peek();
+            }
+        }
+    }
+
+    private void skipStringBody() throws IOException {
+        int c;
+        while ((c = readRequired()) != '"') {
+            if (c == '\\') {
+                readRequired();
+            }
+        }
+    }
+
+    /**
+     * Consome uma vírgula (retornando true) ou o delimitador de fechamento (retornando false).
+     */
+    private boolean readCommaOrEnd(char end) throws IOException {
+        int c = peekSkippingWhitespace();
+        read();
+        if (c == ',') {
+            return true;
+        }
+        if (c == end) {
+            return false;
+        }
+        throw new IOException("JSON inválido: esperado ',' ou '" + end + "'");
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = peekSkippingWhitespace();
+        if (c != expected) {
+            throw new IOException("JSON inválido: esperado '" + expected + "'");
+        }
+        read();
+    }
+
+    private void expectLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (readRequired() != literal.charAt(i)) {
+                throw new IOException("JSON inválido: esperado " + literal);
+            }
+        }
+    }
+
+    private int peekSkippingWhitespace() throws IOException {
+        int c = peek();
+        while (isWhitespace(c)) {
+            read();
+            c = peek();
+        }
+        return c;
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private int readRequired() throws IOException {
+        int c = read();
+        if (c == -1) {
+            throw new IOException("Fim inesperado da resposta da API");
+        }
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        position = 0;
+        limit = 0;
+        if (byteSource != null) {
+            int n = Math.min(buffer.length, byteSource.remaining());
+            byteSource.get(buffer, 0, n);
+            limit = n;
+        } else if (input != null) {
+            int n = input.read(buffer, 0, buffer.length);
+            limit = Math.max(n, 0);
+        }
+        return limit > 0;
+    }
+}
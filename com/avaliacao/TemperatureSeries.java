@@ -0,0 +1,144 @@
+package com.avaliacao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Série de temperaturas horárias armazenada em um double[] primitivo, com um bitmap
+ * que marca as posições nulas da resposta da API.
+ * Diferente de uma List&lt;Double&gt;, não faz boxing dos valores e pode ser reutilizada
+ * entre requisições (clear() mantém os arrays já alocados).
+ * Não é thread-safe: cada thread deve usar a sua própria instância.
+ */
+public class TemperatureSeries {
+
+    // Capacidade inicial: um mês de 31 dias com 24 leituras por dia
+    private static final int DEFAULT_CAPACITY = 31 * 24;
+
+    private double[] values;
+    private long[] nullMask;
+    private int size;
+
+    public TemperatureSeries() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TemperatureSeries(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        this.values = new double[capacity];
+        this.nullMask = new long[wordsFor(capacity)];
+    }
+
+    /**
+     * Adiciona uma leitura ao final da série.
+     */
+    public void add(double value) {
+        ensureCapacity(size + 1);
+        values[size++] = value;
+    }
+
+    /**
+     * Adiciona uma posição sem leitura. O valor armazenado é NaN e o bit correspondente é marcado.
+     */
+    public void addNull() {
+        ensureCapacity(size + 1);
+        nullMask[size >>> 6] |= 1L << size;
+        values[size++] = Double.NaN;
+    }
+
+    /**
+     * Esvazia a série sem liberar os arrays, para reutilização na próxima requisição.
+     */
+    public void clear() {
+        Arrays.fill(nullMask, 0, wordsFor(size), 0L);
+        size = 0;
+    }
+
+    public int size() { return size; }
+
+    public double get(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    public boolean isNull(int index) {
+        checkIndex(index);
+        return (nullMask[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Acesso direto ao array de valores (válido até size()), usado pelos laços de agregação.
+     * As posições nulas contêm NaN.
+     */
+    public double[] values() { return values; }
+
+    /**
+     * Acesso direto ao bitmap de nulos: o bit (i % 64) da palavra (i / 64) indica se a posição i é nula.
+     */
+    public long[] nullMask() { return nullMask; }
+
+    /**
+     * @return A quantidade de posições com leitura válida.
+     */
+    public int nonNullCount() {
+        int nulls = 0;
+        for (int w = 0, words = wordsFor(size); w < words; w++) {
+            nulls += Long.bitCount(nullMask[w]);
+        }
+        return size - nulls;
+    }
+
+    /**
+     * Cria uma cópia independente com o tamanho exato da série.
+     */
+    public TemperatureSeries copy() {
+        TemperatureSeries copy = new TemperatureSeries(size);
+        System.arraycopy(values, 0, copy.values, 0, size);
+        System.arraycopy(nullMask, 0, copy.nullMask, 0, wordsFor(size));
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Substitui o conteúdo desta série pelo de outra, reaproveitando os arrays quando possível.
+     */
+    public void copyFrom(TemperatureSeries source) {
+        clear();
+        ensureCapacity(source.size);
+        System.arraycopy(source.values, 0, values, 0, source.size);
+        System.arraycopy(source.nullMask, 0, nullMask, 0, wordsFor(source.size));
+        size = source.size;
+    }
+
+    /**
+     * Converte para o formato antigo (lista sem os valores nulos), como devolvido por parseTemperatures.
+     */
+    public List<Double> toList() {
+        List<Double> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (!isNull(i)) {
+                list.add(values[i]);
+            }
+        }
+        return list;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > values.length) {
+            int newCapacity = Math.max(required, values.length * 2);
+            values = Arrays.copyOf(values, newCapacity);
+            nullMask = Arrays.copyOf(nullMask, wordsFor(newCapacity));
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Índice " + index + " fora da série de tamanho " + size);
+        }
+    }
+
+    private static int wordsFor(int bits) {
+        return (bits + 63) >>> 6;
+    }
+}
@@ -1,18 +1,45 @@
 package com.avaliacao;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Implementação do experimento na versão concorrente.
  * Utiliza um pool de threads para processar as capitais em paralelo.
+ * Se alguma capital falhar ou a rodada passar do tempo limite, runExperiment lança uma exceção
+ * (a rodada é contada como falha pelo BenchmarkHarness), em vez de apenas registrar o erro.
+ *
+ * Leituras do HttpURLConnection não respondem a interrupções, então tarefas de uma rodada
+ * encerrada por tempo limite podem continuar rodando. Cada tarefa sabe a que rodada pertence,
+ * e escritas de rodadas encerradas são descartadas, para não corromper o ResultStore já
+ * limpo para a rodada seguinte.
  */
 public class ThreadedExperiment extends ExperimentRunner {
 
+    private static final Duration DEFAULT_ROUND_TIMEOUT = Duration.ofHours(1);
+    // Espera pelas tarefas interrompidas depois do tempo limite, antes de desistir delas
+    private static final Duration SHUTDOWN_GRACE = Duration.ofSeconds(5);
+
     private final int numThreads;
+    private Duration roundTimeout = DEFAULT_ROUND_TIMEOUT;
+
+    // Rodada aberta para escritas; encerrar a rodada (escrita da trava) espera as gravações em andamento (leitura)
+    private long openRound;
+    private final ReadWriteLock roundLock = new ReentrantReadWriteLock();
+    private final ThreadLocal<Long> taskRound = new ThreadLocal<>();
+    private final AtomicLong discardedWrites = new AtomicLong();
 
     public ThreadedExperiment(List<CapitalsData.Capital> capitals, ResultStore resultStore, LocalDate startDate, LocalDate endDate, int numThreads) {
         super(capitals, resultStore, startDate, endDate);
@@ -22,27 +49,120 @@ public class ThreadedExperiment extends ExperimentRunner {
     /**
      * Executa o experimento distribuindo as tarefas de processamento de capitais
      * entre um número definido de threads.
+     * @throws TimeoutException se a rodada não terminar dentro do tempo limite.
+     * @throws IllegalStateException se alguma capital falhar; os erros vêm como causa e suprimidos.
      */
     @Override
-    public void runExperiment() throws InterruptedException {
+    public void runExperiment() throws InterruptedException, TimeoutException {
         // Cria um pool de threads com um número fixo.
         ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        Queue<Exception> failures = new ConcurrentLinkedQueue<>();
+        long round = openRound();
 
         // Para cada capital, submete uma nova tarefa para o pool de threads.
         for (CapitalsData.Capital capital : capitals) {
+            long submitted = System.nanoTime();
             executor.submit(() -> {
+                recordQueueWait(capital, submitted);
+                taskRound.set(round);
                 try {
                     fetchDataAndProcess(capital);
                 } catch (Exception e) {
                     System.err.println("Erro ao processar capital: " + capital.getName() + ": " + e.getMessage());
+                    failures.add(new Exception(capital.getName() + ": " + e.getMessage(), e));
+                } finally {
+                    taskRound.remove();
                 }
             });
         }
 
         // Inicia o processo de desligamento do executor. Nenhuma nova tarefa será aceita.
         executor.shutdown();
-        // Aguarda a finalização de todas as tarefas submetidas por até 1 hora.
+        // Aguarda a finalização de todas as tarefas submetidas até o tempo limite da rodada.
         // Isso é crucial para garantir que a medição do tempo só termine após todo o trabalho ser concluído.
-        executor.awaitTermination(1, TimeUnit.HOURS);
+        if (!executor.awaitTermination(roundTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            // A rodada é encerrada antes de tudo: a partir daqui, nenhuma tarefa dela grava no ResultStore
+            closeRound(round);
+            List<Runnable> pending = executor.shutdownNow();
+            boolean stopped = executor.awaitTermination(SHUTDOWN_GRACE.toNanos(), TimeUnit.NANOSECONDS);
+            throw new TimeoutException(String.format("Rodada excedeu %d ms (%d capitais nem começaram%s)",
+                    roundTimeout.toMillis(), pending.size(),
+                    stopped ? "" : "; tarefas ainda em andamento terão os resultados descartados"));
+        }
+        closeRound(round);
+
+        if (!failures.isEmpty()) {
+            List<Exception> errors = new ArrayList<>(failures);
+            IllegalStateException error = new IllegalStateException(
+                    errors.size() + " de " + capitals.size() + " capitais falharam", errors.get(0));
+            for (int i = 1; i < errors.size(); i++) {
+                error.addSuppressed(errors.get(i));
+            }
+            throw error;
+        }
+    }
+
+    private long openRound() {
+        roundLock.writeLock().lock();
+        try {
+            return ++openRound;
+        } finally {
+            roundLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Encerra a rodada para escritas, esperando as gravações que já começaram.
+     */
+    private void closeRound(long round) {
+        roundLock.writeLock().lock();
+        try {
+            if (openRound == round) {
+                openRound = -1;
+            }
+        } finally {
+            roundLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Grava o resultado só se a rodada da tarefa ainda estiver aberta.
+     */
+    @Override
+    protected void storeResult(CapitalsData.Capital capital, Map<LocalDate, WeatherDataProcessor.DailyStats> dailyStats) {
+        Long round = taskRound.get();
+        if (round == null) {
+            super.storeResult(capital, dailyStats);
+            return;
+        }
+        roundLock.readLock().lock();
+        try {
+            if (round != openRound) {
+                discardedWrites.incrementAndGet();
+                return;
+            }
+            super.storeResult(capital, dailyStats);
+        } finally {
+            roundLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Quantos resultados de rodadas encerradas por tempo limite foram descartados.
+     */
+    public long getDiscardedWrites() {
+        return discardedWrites.get();
+    }
+
+    /**
+     * Define o tempo máximo de uma rodada. Ao expirar, as tarefas em andamento são interrompidas
+     * e os resultados que ainda chegarem delas são descartados.
+     */
+    public void setRoundTimeout(Duration roundTimeout) {
+        this.roundTimeout = roundTimeout;
+    }
+
+    public Duration getRoundTimeout() {
+        return roundTimeout;
     }
-}
\ No newline at end of file
+}
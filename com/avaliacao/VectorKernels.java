@@ -0,0 +1,95 @@
+package com.avaliacao;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Núcleos SIMD de AggregationKernels com a Vector API (jdk.incubator.vector).
+ * Só é carregada quando a JVM tem o módulo (--add-modules jdk.incubator.vector); sem ele,
+ * AggregationKernels usa os laços escalares.
+ *
+ * Cada dia completo é lido em vetores da largura preferida da CPU (4 doubles com AVX2, 8 com AVX-512);
+ * mínimo, máximo e soma são acumulados por lane e reduzidos uma única vez por dia.
+ * Leituras NaN são excluídas por máscara, sem desvios.
+ */
+final class VectorKernels implements AggregationKernels.Simd {
+
+    private static final int HOURS = AggregationKernels.HOURS_PER_DAY;
+    // A largura preferida, se um dia couber em vetores inteiros; senão, um double por vez
+    private static final VectorSpecies<Double> SPECIES = HOURS % DoubleVector.SPECIES_PREFERRED.length() == 0
+            ? DoubleVector.SPECIES_PREFERRED
+            : DoubleVector.SPECIES_64;
+
+    @Override
+    public int fullDayStats(double[] hourly, int size, boolean hasNulls,
+                            double[] min, double[] max, double[] mean, int[] count) {
+        int days = size / HOURS;
+        int lanes = SPECIES.length();
+        DoubleVector positiveInfinity = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        DoubleVector negativeInfinity = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        DoubleVector zero = DoubleVector.zero(SPECIES);
+
+        for (int day = 0; day < days; day++) {
+            int start = day * HOURS;
+            DoubleVector dayMin = positiveInfinity;
+            DoubleVector dayMax = negativeInfinity;
+            DoubleVector sum = zero;
+            int valid = HOURS;
+            if (!hasNulls) {
+                for (int i = start; i < start + HOURS; i += lanes) {
+                    DoubleVector value = DoubleVector.fromArray(SPECIES, hourly, i);
+                    dayMin = dayMin.min(value);
+                    dayMax = dayMax.max(value);
+                    sum = sum.add(value);
+                }
+            } else {
+                valid = 0;
+                for (int i = start; i < start + HOURS; i += lanes) {
+                    DoubleVector value = DoubleVector.fromArray(SPECIES, hourly, i);
+                    // NaN é diferente de si mesmo: a máscara marca só as leituras presentes
+                    VectorMask<Double> present = value.eq(value);
+                    dayMin = dayMin.lanewise(VectorOperators.MIN, value, present);
+                    dayMax = dayMax.lanewise(VectorOperators.MAX, value, present);
+                    sum = sum.add(value, present);
+                    valid += present.trueCount();
+                }
+            }
+            if (valid == 0) {
+                min[day] = Double.NaN;
+                max[day] = Double.NaN;
+                mean[day] = Double.NaN;
+            } else {
+                min[day] = dayMin.reduceLanes(VectorOperators.MIN);
+                max[day] = dayMax.reduceLanes(VectorOperators.MAX);
+                mean[day] = sum.reduceLanes(VectorOperators.ADD) / valid;
+            }
+            count[day] = valid;
+        }
+        return days;
+    }
+
+    @Override
+    public double degreeDays(double[] dailyMean, int days, double base, double sign) {
+        DoubleVector total = DoubleVector.zero(SPECIES);
+        int bound = SPECIES.loopBound(days);
+        int day = 0;
+        for (; day < bound; day += SPECIES.length()) {
+            DoubleVector mean = DoubleVector.fromArray(SPECIES, dailyMean, day);
+            DoubleVector degrees = mean.sub(base).mul(sign).max(0.0);
+            total = total.add(degrees, mean.eq(mean));
+        }
+        double result = total.reduceLanes(VectorOperators.ADD);
+        for (; day < days; day++) {
+            double mean = dailyMean[day];
+            result += mean == mean ? Math.max(0.0, sign * (mean - base)) : 0.0;
+        }
+        return result;
+    }
+
+    @Override
+    public String describe() {
+        return "Vector API (" + SPECIES + ")";
+    }
+}
@@ -0,0 +1,131 @@
+package com.avaliacao;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Processador alternativo que calcula as estatísticas diárias com os núcleos de AggregationKernels,
+ * sobre arrays primitivos, em vez de um stream com DoubleSummaryStatistics por dia.
+ * Pode substituir o WeatherDataProcessor em qualquer experimento (ExperimentRunner.setDataProcessor),
+ * e oferece saídas adicionais em aggregate(): média móvel de 7 dias, percentil diário e graus-dia.
+ * Com a Vector API disponível, os núcleos usam SIMD (ver AggregationKernels.implementation()).
+ */
+public class VectorizedDataProcessor extends WeatherDataProcessor {
+
+    private static final int ROLLING_WINDOW_DAYS = 7;
+    private static final double DAILY_PERCENTILE = 90.0;
+
+    /**
+     * Resultado completo da agregação de uma série, em colunas indexadas pelo dia.
+     */
+    public static class DailyAggregates {
+        private final LocalDate firstDay;
+        private final int days;
+        private final double[] min;
+        private final double[] max;
+        private final double[] mean;
+        private final int[] count;
+        private final double[] rollingMean;
+        private final double[] percentile;
+
+        DailyAggregates(LocalDate firstDay, int days) {
+            this.firstDay = firstDay;
+            this.days = days;
+            this.min = new double[days];
+            this.max = new double[days];
+            this.mean = new double[days];
+            this.count = new int[days];
+            this.rollingMean = new double[days];
+            this.percentile = new double[days];
+        }
+
+        public LocalDate getFirstDay() { return firstDay; }
+        public int getDays() { return days; }
+        public double[] getMin() { return min; }
+        public double[] getMax() { return max; }
+        public double[] getMean() { return mean; }
+        /** Leituras válidas por dia. */
+        public int[] getCount() { return count; }
+        /** Média móvel de 7 dias das médias diárias (NaN nos 6 primeiros dias). */
+        public double[] getRollingMean() { return rollingMean; }
+        /** Percentil 90 das leituras horárias de cada dia. */
+        public double[] getPercentile() { return percentile; }
+
+        /**
+         * Graus-dia de aquecimento no período, para uma temperatura base (ex.: 18 °C).
+         */
+        public double heatingDegreeDays(double base) {
+            return AggregationKernels.heatingDegreeDays(mean, days, base);
+        }
+
+        /**
+         * Graus-dia de resfriamento no período, para uma temperatura base (ex.: 18 °C).
+         */
+        public double coolingDegreeDays(double base) {
+            return AggregationKernels.coolingDegreeDays(mean, days, base);
+        }
+    }
+
+    /**
+     * Calcula todas as saídas diárias de uma série.
+     * @param hourlyTemperatures Série com as leituras horárias (nulos como NaN).
+     * @param startDate A data da primeira leitura.
+     */
+    public DailyAggregates aggregate(TemperatureSeries hourlyTemperatures, LocalDate startDate) {
+        int size = hourlyTemperatures.size();
+        DailyAggregates result = new DailyAggregates(startDate, AggregationKernels.daysFor(size));
+        double[] values = hourlyTemperatures.values();
+        AggregationKernels.dailyStats(values, size, hourlyTemperatures.nonNullCount() < size,
+                result.min, result.max, result.mean, result.count);
+        AggregationKernels.rollingMean(result.mean, result.days, ROLLING_WINDOW_DAYS, result.rollingMean);
+        AggregationKernels.dailyPercentile(values, size, DAILY_PERCENTILE, result.percentile);
+        return result;
+    }
+
+    @Override
+    public Map<LocalDate, DailyStats> processDailyTemperatures(TemperatureSeries hourlyTemperatures, LocalDate startDate) {
+        if (hourlyTemperatures == null || hourlyTemperatures.size() == 0) {
+            System.err.println("Atenção: Lista de temperaturas vazia recebida para processamento. Pulando esta capital.");
+            return new LinkedHashMap<>();
+        }
+        int size = hourlyTemperatures.size();
+        return toDailyStats(hourlyTemperatures.values(), size, hourlyTemperatures.nonNullCount() < size, startDate);
+    }
+
+    /**
+     * Versão para listas: os valores são copiados uma vez para um array primitivo
+     * (a lista do parser org.json não contém nulos).
+     */
+    @Override
+    public Map<LocalDate, DailyStats> processDailyTemperatures(List<Double> hourlyTemperatures, LocalDate startDate) {
+        if (hourlyTemperatures == null || hourlyTemperatures.isEmpty()) {
+            System.err.println("Atenção: Lista de temperaturas vazia recebida para processamento. Pulando esta capital.");
+            return new LinkedHashMap<>();
+        }
+        int size = hourlyTemperatures.size();
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = hourlyTemperatures.get(i);
+        }
+        return toDailyStats(values, size, false, startDate);
+    }
+
+    private static Map<LocalDate, DailyStats> toDailyStats(double[] values, int size, boolean hasNulls, LocalDate startDate) {
+        int days = AggregationKernels.daysFor(size);
+        double[] min = new double[days];
+        double[] max = new double[days];
+        double[] mean = new double[days];
+        int[] count = new int[days];
+        AggregationKernels.dailyStats(values, size, hasNulls, min, max, mean, count);
+
+        Map<LocalDate, DailyStats> dailyStatsMap = new LinkedHashMap<>();
+        for (int day = 0; day < days; day++) {
+            if (count[day] > 0) {
+                dailyStatsMap.put(startDate.plusDays(day), new DailyStats(min[day], max[day], mean[day]));
+            }
+        }
+        return dailyStatsMap;
+    }
+}
@@ -0,0 +1,137 @@
+package com.avaliacao;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementação do experimento com uma thread por capital.
+ * Em JVMs com threads virtuais (Java 21+) cada tarefa roda em uma thread virtual, de modo que
+ * a concorrência fica limitada pelo I/O e não pelo número de threads do sistema operacional.
+ * No Java 17 usa como alternativa um pool fixo de threads de plataforma, dimensionado pela
+ * concorrência de I/O (PLATFORM_THREADS), em vez de uma thread do sistema operacional por tarefa.
+ *
+ * No modo estruturado as tarefas formam um grupo: a primeira falha cancela as demais
+ * e é propagada para quem chamou runExperiment.
+ */
+public class VirtualThreadExperiment extends ExperimentRunner {
+
+    // Threads de plataforma no Java 17: o máximo de requisições simultâneas do AdaptiveConcurrencyLimiter padrão
+    static final int PLATFORM_THREADS = Integer.getInteger("virtual.platformThreads", 64);
+
+    private final boolean structured;
+
+    public VirtualThreadExperiment(List<CapitalsData.Capital> capitals, ResultStore resultStore, LocalDate startDate, LocalDate endDate) {
+        this(capitals, resultStore, startDate, endDate, false);
+    }
+
+    public VirtualThreadExperiment(List<CapitalsData.Capital> capitals, ResultStore resultStore, LocalDate startDate, LocalDate endDate,
+                                   boolean structured) {
+        super(capitals, resultStore, startDate, endDate);
+        this.structured = structured;
+    }
+
+    /**
+     * Indica se a JVM atual oferece threads virtuais.
+     */
+    public static boolean virtualThreadsAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Cria um executor que inicia uma nova thread virtual para cada tarefa submetida.
+     * O método de threads virtuais é obtido por reflexão para que o projeto continue compilando no Java 17;
+     * sem ele, as tarefas dividem PLATFORM_THREADS threads de plataforma e as demais esperam na fila.
+     */
+    static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(PLATFORM_THREADS);
+        }
+    }
+
+    @Override
+    public void runExperiment() throws Exception {
+        ExecutorService executor = newThreadPerTaskExecutor();
+        try {
+            if (structured) {
+                runStructured(executor);
+            } else {
+                runUnstructured(executor);
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Submete uma tarefa por capital e aguarda todas; erros são apenas registrados,
+     * com o mesmo comportamento do ThreadedExperiment.
+     */
+    private void runUnstructured(ExecutorService executor) throws InterruptedException {
+        List<Future<?>> futures = new ArrayList<>(capitals.size());
+        for (CapitalsData.Capital capital : capitals) {
+            futures.add(executor.submit(() -> {
+                try {
+                    fetchDataAndProcess(capital);
+                } catch (Exception e) {
+                    System.err.println("Erro ao processar capital: " + capital.getName() + ": " + e.getMessage());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                // Já registrado dentro da tarefa
+            }
+        }
+    }
+
+    /**
+     * Submete as tarefas como um grupo: ao primeiro erro as tarefas restantes são canceladas
+     * (interrompidas) e a exceção original é relançada.
+     */
+    private void runStructured(ExecutorService executor) throws Exception {
+        CompletionService<CapitalsData.Capital> completion = new ExecutorCompletionService<>(executor);
+        List<Future<CapitalsData.Capital>> futures = new ArrayList<>(capitals.size());
+        for (CapitalsData.Capital capital : capitals) {
+            futures.add(completion.submit(() -> {
+                fetchDataAndProcess(capital);
+                return capital;
+            }));
+        }
+
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                completion.take().get();
+            }
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            throw AsyncWeatherApiClient.unwrap(e);
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            throw e;
+        }
+    }
+
+    private static void cancelAll(List<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package com.avaliacao;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
+import java.net.InetAddress;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Scanner;
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -17,52 +24,230 @@ import org.json.JSONObject;
 public class WeatherApiClient {
 
     private static final String BASE_URL = "https://api.open-meteo.com/v1/forecast";
+    // API de dados históricos (reanálise), com os mesmos parâmetros; cobre décadas em vez de meses
+    public static final String ARCHIVE_URL = "https://archive-api.open-meteo.com/v1/archive";
+    // Tempos limite da conexão e de cada leitura do corpo (os mesmos do AsyncWeatherApiClient).
+    // Um tempo limite vira SocketTimeoutException, que o AdaptiveExperiment trata como descarte.
+    private static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+    private static final int READ_TIMEOUT_MILLIS = 30_000;
+
+    private final String baseUrl;
+
+    // Um parser de streaming por thread, para reaproveitar o buffer de leitura entre requisições
+    private final ThreadLocal<StreamingTemperatureParser> streamingParsers =
+            ThreadLocal.withInitial(StreamingTemperatureParser::new);
+
+    /**
+     * Usa o endpoint da propriedade weather.api.baseUrl (ex.: um ReplayServer local) ou, sem ela, o da Open-Meteo.
+     */
+    public WeatherApiClient() {
+        this(defaultBaseUrl());
+    }
+
+    /**
+     * @param baseUrl O endereço do endpoint (ex.: ARCHIVE_URL para períodos longos).
+     */
+    public WeatherApiClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * @return O endpoint de previsão: a propriedade weather.api.baseUrl, se definida, ou BASE_URL.
+     */
+    public static String defaultBaseUrl() {
+        return System.getProperty("weather.api.baseUrl", BASE_URL);
+    }
+
+    /**
+     * @return O endpoint de dados históricos: a propriedade weather.api.archiveUrl, se definida, ou ARCHIVE_URL.
+     */
+    public static String archiveUrl() {
+        return System.getProperty("weather.api.archiveUrl", ARCHIVE_URL);
+    }
 
     /**
      * Busca os dados climáticos para uma dada coordenada e período fazendo uma chamada HTTP real.
      * @return Uma string contendo o JSON da resposta da API.
      */
     public String getWeatherData(double latitude, double longitude, LocalDate startDate, LocalDate endDate) throws Exception {
-        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE;
-        // Monta a URL com os parâmetros necessários
-        String urlString = String.format("%s?latitude=%.4f&longitude=%.4f&start_date=%s&end_date=%s&hourly=temperature_2m",
-                BASE_URL, latitude, longitude, startDate.format(formatter), endDate.format(formatter));
-
-        // Garante que o formato de decimal na URL use ponto, não vírgula.
-        urlString = urlString.replace(',', '.');
-
-        URL url = new URL(urlString);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.connect();
-
-        // Verifica se a requisição foi bem-sucedida
-        int responseCode = conn.getResponseCode();
-        if (responseCode != 200) {
-            throw new RuntimeException("HttpResponseCode: " + responseCode + " for URL " + urlString);
-        } else {
-            // Lê o corpo da resposta
-            Scanner scanner = new Scanner(url.openStream());
+        String urlString = buildUrl(latitude, longitude, startDate, endDate);
+
+        try (InputStream body = openResponseBody(urlString)) {
+            // Lê o corpo da resposta pela mesma conexão (url.openStream() faria uma segunda requisição)
+            Scanner scanner = new Scanner(body, StandardCharsets.UTF_8);
             StringBuilder inline = new StringBuilder();
             while (scanner.hasNext()) {
                 inline.append(scanner.nextLine());
             }
-            scanner.close();
+            // O Scanner engole erros de leitura (ex.: o tempo limite de leitura); sem isto viraria um JSON truncado
+            if (scanner.ioException() != null) {
+                throw scanner.ioException();
+            }
             return inline.toString();
         }
     }
 
+    /**
+     * Busca os dados climáticos e devolve o corpo da resposta sem decodificar,
+     * para que o parsing possa ser feito depois, em outra thread.
+     * @return Os bytes do JSON da resposta da API.
+     */
+    public byte[] getWeatherBytes(double latitude, double longitude, LocalDate startDate, LocalDate endDate) throws Exception {
+        String urlString = buildUrl(latitude, longitude, startDate, endDate);
+
+        try (InputStream body = openResponseBody(urlString)) {
+            return body.readAllBytes();
+        }
+    }
+
+    /**
+     * Busca os dados climáticos e extrai as temperaturas diretamente do corpo da resposta,
+     * sem montar a String completa do JSON.
+     * @param target A série que receberá as temperaturas (é esvaziada antes).
+     * @return true se a resposta continha o campo hourly.temperature_2m.
+     */
+    public boolean fetchTemperatures(double latitude, double longitude, LocalDate startDate, LocalDate endDate,
+                                     TemperatureSeries target) throws Exception {
+        String urlString = buildUrl(latitude, longitude, startDate, endDate);
+
+        try (InputStream body = openResponseBody(urlString)) {
+            return parseTemperatures(body, target);
+        }
+    }
+
+    /**
+     * Busca em uma única requisição os dados de várias capitais, usando listas de
+     * latitudes e longitudes separadas por vírgula.
+     * @return Uma string contendo o JSON da resposta (um array com um objeto por capital).
+     */
+    public String getWeatherDataBatch(List<CapitalsData.Capital> locations, LocalDate startDate, LocalDate endDate) throws Exception {
+        String urlString = buildBatchUrl(locations, startDate, endDate);
+
+        try (InputStream body = openResponseBody(urlString)) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Versão em lote do fetchTemperatures: uma requisição para várias capitais,
+     * com as temperaturas de cada uma escritas na série correspondente.
+     * @param targets Séries de destino, uma por capital, na mesma ordem de locations.
+     * @return A quantidade de localidades presentes na resposta.
+     */
+    public int fetchTemperaturesBatch(List<CapitalsData.Capital> locations, LocalDate startDate, LocalDate endDate,
+                                      TemperatureSeries[] targets) throws Exception {
+        String urlString = buildBatchUrl(locations, startDate, endDate);
+
+        try (InputStream body = openResponseBody(urlString)) {
+            return parseTemperaturesBatch(body, targets);
+        }
+    }
+
+    /**
+     * Abre a conexão, verifica o status da resposta e devolve o corpo para leitura.
+     * Cada fase (conexão com TLS, primeiro byte e download) é registrada no WeatherMetrics
+     * e no evento JFR da requisição; o download termina quando o corpo devolvido é fechado.
+     * O DNS só é medido à parte quando o rastreamento está ativo (FetchTrace.tracesDns).
+     * @throws HttpStatusException se o status HTTP não for 200.
+     */
+    protected InputStream openResponseBody(String urlString) throws IOException {
+        FetchTrace trace = FetchTrace.start(urlString);
+        try {
+            URL url = new URL(urlString);
+            if (trace.tracesDns()) {
+                // Resolve o nome antes da conexão (a conexão reaproveita o cache do InetAddress)
+                InetAddress.getAllByName(url.getHost());
+                trace.mark(WeatherMetrics.Phase.DNS);
+            }
+
+            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+            conn.setRequestMethod("GET");
+            conn.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+            conn.setReadTimeout(READ_TIMEOUT_MILLIS);
+            conn.connect();
+            trace.mark(WeatherMetrics.Phase.CONNECT);
+
+            int responseCode = conn.getResponseCode();
+            trace.mark(WeatherMetrics.Phase.TIME_TO_FIRST_BYTE);
+            trace.status(responseCode);
+            if (responseCode != 200) {
+                discardErrorBody(conn);
+                throw new HttpStatusException(responseCode, urlString);
+            }
+            return trace.body(conn.getInputStream());
+        } catch (IOException | RuntimeException e) {
+            trace.fail(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Lê e fecha o corpo de uma resposta de erro, para que a conexão volte ao pool do keep-alive,
+     * e desconecta se a leitura falhar. Sem isso, cada 429/5xx prende uma conexão.
+     */
+    private static void discardErrorBody(HttpURLConnection conn) {
+        try (InputStream error = conn.getErrorStream()) {
+            if (error != null) {
+                error.transferTo(OutputStream.nullOutputStream());
+            }
+        } catch (IOException e) {
+            conn.disconnect();
+        }
+    }
+
+    /**
+     * Monta a URL de uma requisição em lote, com as coordenadas separadas por vírgula.
+     */
+    protected String buildBatchUrl(List<CapitalsData.Capital> locations, LocalDate startDate, LocalDate endDate) {
+        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE;
+        StringBuilder latitudes = new StringBuilder();
+        StringBuilder longitudes = new StringBuilder();
+        for (CapitalsData.Capital location : locations) {
+            if (latitudes.length() > 0) {
+                latitudes.append(',');
+                longitudes.append(',');
+            }
+            latitudes.append(String.format(Locale.ROOT, "%.4f", location.getLatitude()));
+            longitudes.append(String.format(Locale.ROOT, "%.4f", location.getLongitude()));
+        }
+        return String.format(Locale.ROOT, "%s?latitude=%s&longitude=%s&start_date=%s&end_date=%s&hourly=temperature_2m",
+                baseUrl, latitudes, longitudes, startDate.format(formatter), endDate.format(formatter));
+    }
+
+    /**
+     * Monta a URL da requisição para uma coordenada e período.
+     * Usa Locale.ROOT para garantir que o separador decimal seja sempre o ponto.
+     * @return A URL completa, com os parâmetros de consulta.
+     */
+    protected String buildUrl(double latitude, double longitude, LocalDate startDate, LocalDate endDate) {
+        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE;
+        return String.format(Locale.ROOT, "%s?latitude=%.4f&longitude=%.4f&start_date=%s&end_date=%s&hourly=temperature_2m",
+                baseUrl, latitude, longitude, startDate.format(formatter), endDate.format(formatter));
+    }
+
     /**
      * Extrai a lista de temperaturas horárias do JSON recebido.
      * @param jsonData A string JSON completa da resposta da API.
      * @return Uma lista de temperaturas (Double).
      */
     public List<Double> parseTemperatures(String jsonData) {
+        WeatherEvents.ParseEvent event = new WeatherEvents.ParseEvent();
+        event.begin();
+        long start = System.nanoTime();
+        List<Double> temperatures = parseTemperatures(new JSONObject(jsonData));
+        recordParse(event, start, "org.json", temperatures.size());
+        return temperatures;
+    }
+
+    private List<Double> parseTemperatures(JSONObject jsonObject) {
         List<Double> temperatures = new ArrayList<>();
-        JSONObject jsonObject = new JSONObject(jsonData);
 
         if (!jsonObject.has("hourly")) {
-            System.err.println("Atenção: A resposta da API não contém dados 'hourly'. JSON: " + jsonData);
+            System.err.println("Atenção: A resposta da API não contém dados 'hourly'. JSON: " + jsonObject);
             return temperatures;
         }
 
@@ -77,4 +262,79 @@ public class WeatherApiClient {
         }
         return temperatures;
     }
+
+    /**
+     * Extrai as temperaturas de uma resposta com várias localidades.
+     * A API devolve um array com um objeto por coordenada (ou um único objeto, se houver só uma).
+     * @param jsonData A string JSON completa da resposta da API.
+     * @return Uma lista de temperaturas por localidade, na ordem da requisição.
+     */
+    public List<List<Double>> parseTemperaturesBatch(String jsonData) {
+        List<List<Double>> result = new ArrayList<>();
+        String trimmed = jsonData.trim();
+        if (trimmed.startsWith("{")) {
+            result.add(parseTemperatures(new JSONObject(trimmed)));
+            return result;
+        }
+        JSONArray locations = new JSONArray(trimmed);
+        for (int i = 0; i < locations.length(); i++) {
+            result.add(parseTemperatures(locations.getJSONObject(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Extrai as temperaturas horárias lendo o corpo da resposta em streaming.
+     * Diferente de parseTemperatures(String), mantém a posição das leituras nulas (marcadas na série).
+     * @param body O corpo da resposta da API.
+     * @param target A série que receberá as temperaturas (é esvaziada antes).
+     * @return true se a resposta continha o campo hourly.temperature_2m.
+     */
+    public boolean parseTemperatures(InputStream body, TemperatureSeries target) throws IOException {
+        WeatherEvents.ParseEvent event = new WeatherEvents.ParseEvent();
+        event.begin();
+        long start = System.nanoTime();
+        boolean found = streamingParsers.get().parse(body, target);
+        recordParse(event, start, "streaming", target.size());
+        return found;
+    }
+
+    /**
+     * Versão em lote da extração em streaming: as temperaturas de cada localidade da resposta
+     * são escritas na série de mesma posição em targets.
+     * @return A quantidade de localidades presentes na resposta.
+     */
+    public int parseTemperaturesBatch(InputStream body, TemperatureSeries[] targets) throws IOException {
+        WeatherEvents.ParseEvent event = new WeatherEvents.ParseEvent();
+        event.begin();
+        long start = System.nanoTime();
+        int locationsFound = streamingParsers.get().parseBatch(body, targets);
+        recordParse(event, start, "streaming-batch", locationsFound);
+        return locationsFound;
+    }
+
+    /**
+     * Mesma extração, para respostas já carregadas em um ByteBuffer.
+     */
+    public boolean parseTemperatures(ByteBuffer body, TemperatureSeries target) throws IOException {
+        WeatherEvents.ParseEvent event = new WeatherEvents.ParseEvent();
+        event.begin();
+        long start = System.nanoTime();
+        boolean found = streamingParsers.get().parse(body, target);
+        recordParse(event, start, "streaming", target.size());
+        return found;
+    }
+
+    /**
+     * Registra a duração de um parsing nas métricas e, se houver gravação JFR ativa, no evento.
+     * No parsing a partir de um InputStream a medição inclui a leitura do corpo, que acontece junto.
+     */
+    private static void recordParse(WeatherEvents.ParseEvent event, long startNanos, String parser, int values) {
+        WeatherMetrics.get().record(WeatherMetrics.Phase.PARSE, System.nanoTime() - startNanos);
+        if (event.shouldCommit()) {
+            event.parser = parser;
+            event.values = values;
+            event.commit();
+        }
+    }
 }
\ No newline at end of file
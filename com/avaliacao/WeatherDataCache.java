@@ -0,0 +1,276 @@
+package com.avaliacao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Cache de séries de temperatura já extraídas, em dois níveis:
+ * <ul>
+ *   <li>memória: LRU limitado pelo número de entradas;</li>
+ *   <li>disco: um arquivo binário por requisição, lido via memory-mapping, com limite total
+ *       de bytes e remoção dos arquivos acessados há mais tempo.</li>
+ * </ul>
+ * Como os dados históricos de um período fechado não mudam, uma rodada com o cache aquecido
+ * não faz I/O de rede nem parsing de JSON.
+ * Todos os métodos são thread-safe.
+ */
+public class WeatherDataCache {
+
+    // Cabeçalho do arquivo: marca, versão e quantidade de valores
+    private static final int MAGIC = 0x574D4331; // "WMC1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+    private static final String FILE_SUFFIX = ".bin";
+
+    private final int maxMemoryEntries;
+    private final Path directory;
+    private final long maxDiskBytes;
+
+    private final LinkedHashMap<WeatherRequestKey, TemperatureSeries> memory;
+    private final AtomicLong diskBytes = new AtomicLong();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Cria um cache apenas em memória.
+     */
+    public WeatherDataCache(int maxMemoryEntries) {
+        this(maxMemoryEntries, null, 0);
+    }
+
+    /**
+     * @param maxMemoryEntries Número máximo de séries mantidas em memória.
+     * @param directory Diretório do nível em disco (null desativa o disco).
+     * @param maxDiskBytes Tamanho máximo somado dos arquivos em disco.
+     */
+    public WeatherDataCache(int maxMemoryEntries, Path directory, long maxDiskBytes) {
+        this.maxMemoryEntries = maxMemoryEntries;
+        this.directory = directory;
+        this.maxDiskBytes = maxDiskBytes;
+        // accessOrder = true transforma o LinkedHashMap em uma LRU
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<WeatherRequestKey, TemperatureSeries> eldest) {
+                return size() > WeatherDataCache.this.maxMemoryEntries;
+            }
+        };
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+                diskBytes.set(listCacheFiles().stream().mapToLong(WeatherDataCache::sizeOf).sum());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Não foi possível preparar o diretório de cache " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * Procura a série no cache e, se encontrada, copia para target.
+     * @return true em caso de acerto (em memória ou em disco).
+     */
+    public boolean get(WeatherRequestKey key, TemperatureSeries target) {
+        synchronized (memory) {
+            TemperatureSeries cached = memory.get(key);
+            if (cached != null) {
+                target.copyFrom(cached);
+                memoryHits.incrementAndGet();
+                return true;
+            }
+        }
+        if (directory != null && readFromDisk(key, target)) {
+            diskHits.incrementAndGet();
+            putInMemory(key, target);
+            return true;
+        }
+        misses.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Armazena uma cópia da série nos dois níveis do cache.
+     */
+    public void put(WeatherRequestKey key, TemperatureSeries series) {
+        putInMemory(key, series);
+        if (directory != null) {
+            writeToDisk(key, series);
+        }
+    }
+
+    private void putInMemory(WeatherRequestKey key, TemperatureSeries series) {
+        if (maxMemoryEntries <= 0) {
+            return;
+        }
+        TemperatureSeries copy = series.copy();
+        synchronized (memory) {
+            memory.put(key, copy);
+        }
+    }
+
+    /**
+     * Lê o arquivo da chave via memory-mapping. Valores nulos são gravados como NaN.
+     */
+    private boolean readFromDisk(WeatherRequestKey key, TemperatureSeries target) {
+        Path file = fileFor(key);
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.remaining() < HEADER_BYTES || mapped.getInt() != MAGIC || mapped.getInt() != VERSION) {
+                return false;
+            }
+            int count = mapped.getInt();
+            if (mapped.remaining() < (long) count * Double.BYTES) {
+                return false;
+            }
+            DoubleBuffer values = mapped.asDoubleBuffer();
+            target.clear();
+            for (int i = 0; i < count; i++) {
+                double value = values.get(i);
+                if (value == value) {
+                    target.add(value);
+                } else {
+                    target.addNull();
+                }
+            }
+            // Marca o acesso para a política de remoção por tempo de uso
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return true;
+        } catch (IOException e) {
+            System.err.println("Atenção: falha ao ler o cache em disco " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Grava a série em um arquivo temporário e o move para o nome final, para que leitores
+     * concorrentes nunca vejam um arquivo incompleto. A gravação do temporário corre sem trava;
+     * a troca do arquivo, a contagem de bytes e a remoção ficam sob a mesma trava (o monitor da
+     * instância), para que escritas simultâneas da mesma chave e a remoção não descontem ou
+     * contem o mesmo arquivo duas vezes.
+     */
+    private void writeToDisk(WeatherRequestKey key, TemperatureSeries series) {
+        Path file = fileFor(key);
+        int count = series.size();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + count * Double.BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(count);
+        double[] values = series.values();
+        for (int i = 0; i < count; i++) {
+            buffer.putDouble(values[i]);
+        }
+        buffer.flip();
+
+        try {
+            Path temp = Files.createTempFile(directory, "entry", ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            synchronized (this) {
+                long previousSize = Files.exists(file) ? sizeOf(file) : 0;
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                diskBytes.addAndGet(sizeOf(file) - previousSize);
+                evictIfNeeded();
+            }
+        } catch (IOException e) {
+            System.err.println("Atenção: falha ao gravar o cache em disco " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Remove os arquivos acessados há mais tempo até o total caber no limite configurado.
+     * Chamado sob a mesma trava da troca de arquivos em writeToDisk.
+     */
+    private synchronized void evictIfNeeded() throws IOException {
+        if (diskBytes.get() <= maxDiskBytes) {
+            return;
+        }
+        List<Path> files = listCacheFiles();
+        files.sort(Comparator.comparingLong(WeatherDataCache::lastModifiedOf));
+        for (Path file : files) {
+            if (diskBytes.get() <= maxDiskBytes) {
+                break;
+            }
+            long size = sizeOf(file);
+            if (Files.deleteIfExists(file)) {
+                diskBytes.addAndGet(-size);
+            }
+        }
+    }
+
+    /**
+     * Esvazia o nível em memória (o disco é mantido), simulando uma nova execução com disco aquecido.
+     */
+    public void clearMemory() {
+        synchronized (memory) {
+            memory.clear();
+        }
+    }
+
+    public long getMemoryHits() { return memoryHits.get(); }
+    public long getDiskHits() { return diskHits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getDiskBytes() { return diskBytes.get(); }
+
+    /**
+     * @return A fração de consultas atendidas pelo cache (0 se ainda não houve consultas).
+     */
+    public double getHitRatio() {
+        long hits = memoryHits.get() + diskHits.get();
+        long total = hits + misses.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Cache: %.1f%% de acertos (memória: %d, disco: %d, faltas: %d, %d bytes em disco)",
+                getHitRatio() * 100, getMemoryHits(), getDiskHits(), getMisses(), getDiskBytes());
+    }
+
+    private Path fileFor(WeatherRequestKey key) {
+        return directory.resolve(key.toFileName() + FILE_SUFFIX);
+    }
+
+    private List<Path> listCacheFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> result = new ArrayList<>();
+            files.filter(f -> f.getFileName().toString().endsWith(FILE_SUFFIX)).forEach(result::add);
+            return result;
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long lastModifiedOf(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
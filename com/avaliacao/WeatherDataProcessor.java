@@ -48,9 +48,10 @@ public class WeatherDataProcessor {
             return dailyStatsMap;
         }
         
-        int days = (int) startDate.lengthOfMonth();
+        // A quantidade de dias vem do tamanho da série (24 leituras por dia), e não do mês da data inicial
+        int days = (hourlyTemperatures.size() + 23) / 24;
 
-        // Itera dia a dia sobre o mês de Janeiro
+        // Itera dia a dia sobre o período
         for (int day = 0; day < days; day++) {
             // Separa as 24 leituras de temperatura para o dia atual
             int start = day * 24;
@@ -80,4 +81,52 @@ public class WeatherDataProcessor {
         }
         return dailyStatsMap;
     }
+
+    /**
+     * Versão sem boxing: percorre o array primitivo da série em janelas de 24 horas.
+     * As posições nulas são ignoradas dentro da janela, sem deslocar os dias seguintes.
+     * @param hourlyTemperatures Série com todas as temperaturas do período.
+     * @param startDate A data de início, para calcular as datas corretas.
+     * @return Um mapa que associa cada data às suas estatísticas diárias.
+     */
+    public Map<LocalDate, DailyStats> processDailyTemperatures(TemperatureSeries hourlyTemperatures, LocalDate startDate) {
+        Map<LocalDate, DailyStats> dailyStatsMap = new LinkedHashMap<>();
+
+        if (hourlyTemperatures == null || hourlyTemperatures.size() == 0) {
+            System.err.println("Atenção: Lista de temperaturas vazia recebida para processamento. Pulando esta capital.");
+            return dailyStatsMap;
+        }
+
+        double[] values = hourlyTemperatures.values();
+        int size = hourlyTemperatures.size();
+        int days = (size + 23) / 24;
+
+        for (int day = 0; day < days; day++) {
+            int start = day * 24;
+            if (start >= size) {
+                break;
+            }
+            int end = Math.min(start + 24, size);
+
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            double sum = 0.0;
+            int count = 0;
+            for (int i = start; i < end; i++) {
+                double value = values[i];
+                // Posições nulas são armazenadas como NaN
+                if (value == value) {
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                    sum += value;
+                    count++;
+                }
+            }
+            if (count == 0) {
+                continue; // Nenhuma leitura válida neste dia
+            }
+            dailyStatsMap.put(startDate.plusDays(day), new DailyStats(min, max, sum / count));
+        }
+        return dailyStatsMap;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.avaliacao;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Eventos do JDK Flight Recorder emitidos nas fases do caminho quente.
+ * Com uma gravação ativa (por exemplo, java -XX:StartFlightRecording=filename=run.jfr ...)
+ * cada requisição aparece com o tempo de DNS, conexão (TCP + TLS), primeiro byte e download,
+ * além do parsing, da agregação e da espera na fila do executor.
+ * Sem gravação ativa os eventos não são registrados e o custo é desprezível.
+ */
+public final class WeatherEvents {
+
+    private WeatherEvents() {
+    }
+
+    @Name("com.avaliacao.Fetch")
+    @Label("Requisição à API")
+    @Category({"Weather", "HTTP"})
+    @Description("Uma requisição HTTP à API de clima, com o tempo de cada fase")
+    public static class FetchEvent extends Event {
+        @Label("URL")
+        public String url;
+
+        @Label("Status HTTP")
+        public int statusCode;
+
+        @Label("Bytes lidos")
+        @DataAmount
+        public long bytesRead;
+
+        @Label("DNS")
+        @Timespan
+        public long dnsTime;
+
+        @Label("Conexão (TCP + TLS)")
+        @Timespan
+        public long connectTime;
+
+        @Label("Tempo até o primeiro byte")
+        @Timespan
+        public long timeToFirstByte;
+
+        @Label("Download do corpo")
+        @Timespan
+        public long downloadTime;
+
+        @Label("Erro")
+        public String error;
+    }
+
+    @Name("com.avaliacao.Parse")
+    @Label("Parsing da resposta")
+    @Category({"Weather", "CPU"})
+    public static class ParseEvent extends Event {
+        @Label("Parser")
+        public String parser;
+
+        @Label("Valores extraídos")
+        public int values;
+    }
+
+    @Name("com.avaliacao.Aggregate")
+    @Label("Agregação diária")
+    @Category({"Weather", "CPU"})
+    public static class AggregateEvent extends Event {
+        @Label("Leituras horárias")
+        public int hours;
+
+        @Label("Dias produzidos")
+        public int days;
+    }
+
+    @Name("com.avaliacao.QueueWait")
+    @Label("Espera na fila do executor")
+    @Category({"Weather", "Executor"})
+    public static class QueueWaitEvent extends Event {
+        @Label("Capital")
+        public String capital;
+
+        @Label("Tempo na fila")
+        @Timespan
+        public long waitTime;
+    }
+}
@@ -0,0 +1,104 @@
+package com.avaliacao;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Respostas da Open-Meteo usadas em benchmarks e testes sem rede.
+ * Quando existe uma resposta gravada em disco (diretório de fixtures), ela é usada;
+ * caso contrário uma resposta com o mesmo formato é gerada de forma determinística
+ * (ciclo diário e anual de temperatura mais ruído com semente fixa).
+ */
+public class WeatherFixtures {
+
+    /**
+     * Tamanhos padrão de período usados nos benchmarks.
+     */
+    public enum Size {
+        MONTH(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)),
+        YEAR(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31)),
+        DECADE(LocalDate.of(2014, 1, 1), LocalDate.of(2023, 12, 31));
+
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+
+        Size(LocalDate startDate, LocalDate endDate) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        public LocalDate getStartDate() { return startDate; }
+        public LocalDate getEndDate() { return endDate; }
+
+        public String fileName() {
+            return name().toLowerCase(Locale.ROOT) + ".json";
+        }
+    }
+
+    private WeatherFixtures() {
+    }
+
+    /**
+     * Carrega a resposta gravada de um tamanho (ex.: fixtures/year.json) ou gera uma equivalente.
+     * @param fixtureDirectory Diretório com respostas gravadas (pode ser null).
+     */
+    public static String load(Path fixtureDirectory, Size size) throws IOException {
+        if (fixtureDirectory != null) {
+            Path file = fixtureDirectory.resolve(size.fileName());
+            if (Files.exists(file)) {
+                return Files.readString(file, StandardCharsets.UTF_8);
+            }
+        }
+        return generate(-15.7939, -47.8828, size.getStartDate(), size.getEndDate());
+    }
+
+    /**
+     * Gera uma resposta com o formato da API para uma coordenada e período.
+     * Aproximadamente uma leitura a cada 500 é nula, como acontece nas respostas reais.
+     */
+    public static String generate(double latitude, double longitude, LocalDate startDate, LocalDate endDate) {
+        int hours = (int) (endDate.toEpochDay() - startDate.toEpochDay() + 1) * 24;
+        // Semente derivada da coordenada: a mesma localidade sempre produz os mesmos valores
+        SplittableRandom random = new SplittableRandom(Double.doubleToLongBits(latitude) * 31 + Double.doubleToLongBits(longitude));
+        double baseTemperature = 27.0 - Math.abs(latitude) * 0.35;
+
+        StringBuilder json = new StringBuilder(hours * 32 + 512);
+        json.append(String.format(Locale.ROOT,
+                "{\"latitude\":%.4f,\"longitude\":%.4f,\"generationtime_ms\":0.123,\"utc_offset_seconds\":0,"
+                        + "\"timezone\":\"GMT\",\"timezone_abbreviation\":\"GMT\",\"elevation\":1000.0,"
+                        + "\"hourly_units\":{\"time\":\"iso8601\",\"temperature_2m\":\"°C\"},\"hourly\":{\"time\":[",
+                latitude, longitude));
+
+        LocalDateTime time = startDate.atStartOfDay();
+        for (int i = 0; i < hours; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(time.plusHours(i)).append('"');
+        }
+
+        json.append("],\"temperature_2m\":[");
+        for (int i = 0; i < hours; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            if (random.nextInt(500) == 0) {
+                json.append("null");
+                continue;
+            }
+            double dayOfYear = startDate.plusDays(i / 24).getDayOfYear();
+            double seasonal = 3.0 * Math.cos(2 * Math.PI * dayOfYear / 365.25);
+            double diurnal = 4.5 * Math.sin(2 * Math.PI * ((i % 24) - 9) / 24.0);
+            double value = baseTemperature + seasonal + diurnal + random.nextGaussian() * 0.8;
+            json.append(String.format(Locale.ROOT, "%.1f", value));
+        }
+        json.append("]}}");
+        return json.toString();
+    }
+}
@@ -0,0 +1,196 @@
+package com.avaliacao;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Métricas do caminho quente, compartilhadas por todos os clientes e experimentos do processo:
+ * requisições em andamento, bytes lidos, erros por status e histogramas de latência por fase.
+ * A instância única é registrada no JMX na primeira vez em que é obtida.
+ */
+public class WeatherMetrics implements WeatherMetricsMXBean {
+
+    /**
+     * Fases medidas separadamente.
+     */
+    public enum Phase {
+        FETCH("fetch"),
+        DNS("dns"),
+        CONNECT("connect"),
+        TIME_TO_FIRST_BYTE("ttfb"),
+        DOWNLOAD("download"),
+        PARSE("parse"),
+        AGGREGATE("aggregate"),
+        QUEUE_WAIT("queueWait");
+
+        private final String key;
+
+        Phase(String key) {
+            this.key = key;
+        }
+
+        public String getKey() { return key; }
+    }
+
+    public static final String OBJECT_NAME = "com.avaliacao:type=WeatherMetrics";
+
+    private static final WeatherMetrics INSTANCE = new WeatherMetrics();
+    static {
+        INSTANCE.register();
+    }
+
+    private final AtomicInteger requestsInFlight = new AtomicInteger();
+    private final AtomicLong requestsTotal = new AtomicLong();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final Map<String, LongAdder> errorsByStatus = new ConcurrentHashMap<>();
+    private final Map<Phase, LatencyHistogram> latencies = new EnumMap<>(Phase.class);
+    // Publicado pelo AdaptiveConcurrencyLimiter a cada ajuste
+    private final AtomicInteger concurrencyLimit = new AtomicInteger();
+
+    WeatherMetrics() {
+        for (Phase phase : Phase.values()) {
+            latencies.put(phase, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * @return A instância de métricas do processo.
+     */
+    public static WeatherMetrics get() {
+        return INSTANCE;
+    }
+
+    private void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Atenção: não foi possível registrar as métricas no JMX: " + e.getMessage());
+        }
+    }
+
+    void requestStarted() {
+        requestsInFlight.incrementAndGet();
+        requestsTotal.incrementAndGet();
+    }
+
+    void requestFinished() {
+        requestsInFlight.decrementAndGet();
+    }
+
+    void addBytesRead(long bytes) {
+        bytesRead.add(bytes);
+    }
+
+    /**
+     * Registra uma falha. Falhas sem status HTTP são agrupadas pelo nome da exceção.
+     */
+    void recordError(String statusOrType) {
+        errorsByStatus.computeIfAbsent(statusOrType, k -> new LongAdder()).increment();
+    }
+
+    void concurrencyLimitChanged(int limit) {
+        concurrencyLimit.set(limit);
+    }
+
+    /**
+     * Registra a duração de uma fase.
+     */
+    public void record(Phase phase, long nanos) {
+        latencies.get(phase).record(nanos);
+        if (phase == Phase.PARSE) {
+            parseNanos.add(nanos);
+        }
+    }
+
+    public LatencyHistogram getLatencies(Phase phase) {
+        return latencies.get(phase);
+    }
+
+    @Override
+    public int getRequestsInFlight() {
+        return requestsInFlight.get();
+    }
+
+    @Override
+    public long getRequestsTotal() {
+        return requestsTotal.get();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public Map<String, Long> getErrorsByStatus() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        errorsByStatus.forEach((status, count) -> snapshot.put(status, count.sum()));
+        return snapshot;
+    }
+
+    @Override
+    public double getParseTimeMillis() {
+        return parseNanos.sum() / 1e6;
+    }
+
+    @Override
+    public Map<String, Double> getLatencyPercentilesMillis() {
+        Map<String, Double> snapshot = new TreeMap<>();
+        for (Map.Entry<Phase, LatencyHistogram> entry : latencies.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            String key = entry.getKey().getKey();
+            snapshot.put(key + ".p50", histogram.getPercentileNanos(50) / 1e6);
+            snapshot.put(key + ".p90", histogram.getPercentileNanos(90) / 1e6);
+            snapshot.put(key + ".p99", histogram.getPercentileNanos(99) / 1e6);
+            snapshot.put(key + ".max", histogram.getMaxNanos() / 1e6);
+        }
+        return snapshot;
+    }
+
+    @Override
+    public int getConcurrencyLimit() {
+        return concurrencyLimit.get();
+    }
+
+    @Override
+    public void reset() {
+        requestsTotal.set(0);
+        bytesRead.reset();
+        parseNanos.reset();
+        errorsByStatus.clear();
+        latencies.values().forEach(LatencyHistogram::reset);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Métricas: %d requisições, %d em andamento, %d bytes lidos, parsing %.1f ms, erros %s\n",
+                getRequestsTotal(), getRequestsInFlight(), getBytesRead(), getParseTimeMillis(), getErrorsByStatus()));
+        if (getConcurrencyLimit() > 0) {
+            report.append(String.format("  limite de concorrência adaptativo: %d\n", getConcurrencyLimit()));
+        }
+        for (Map.Entry<Phase, LatencyHistogram> entry : latencies.entrySet()) {
+            if (entry.getValue().getCount() > 0) {
+                report.append(String.format("  %-10s %s\n", entry.getKey().getKey(), entry.getValue()));
+            }
+        }
+        return report.toString();
+    }
+}
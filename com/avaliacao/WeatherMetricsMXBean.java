@@ -0,0 +1,35 @@
+package com.avaliacao;
+
+import java.util.Map;
+
+/**
+ * Interface de gerenciamento (JMX) das métricas do cliente de clima.
+ * Registrada como "com.avaliacao:type=WeatherMetrics" no MBeanServer da plataforma,
+ * pode ser consultada com o JConsole ou o VisualVM sem anexar um profiler.
+ */
+public interface WeatherMetricsMXBean {
+
+    /** Requisições HTTP em andamento neste momento. */
+    int getRequestsInFlight();
+
+    /** Requisições HTTP iniciadas desde o último reset. */
+    long getRequestsTotal();
+
+    /** Bytes de corpo de resposta lidos desde o último reset. */
+    long getBytesRead();
+
+    /** Requisições que falharam, por status HTTP ("IOException" etc. para falhas sem status). */
+    Map<String, Long> getErrorsByStatus();
+
+    /** Tempo total gasto em parsing, em milissegundos. */
+    double getParseTimeMillis();
+
+    /** Percentis de latência por fase, em milissegundos (chaves como "fetch.p99" e "queueWait.p50"). */
+    Map<String, Double> getLatencyPercentilesMillis();
+
+    /** Limite atual de requisições simultâneas do AdaptiveConcurrencyLimiter (0 se nenhum estiver em uso). */
+    int getConcurrencyLimit();
+
+    /** Zera contadores e histogramas (a quantidade em andamento é mantida). */
+    void reset();
+}
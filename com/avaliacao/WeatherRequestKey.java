@@ -0,0 +1,70 @@
+package com.avaliacao;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Identifica uma requisição à API: coordenada, período e variáveis horárias.
+ * As coordenadas são arredondadas para 4 casas decimais, a mesma precisão usada na URL,
+ * de modo que duas chaves iguais correspondem sempre à mesma requisição.
+ */
+public final class WeatherRequestKey {
+
+    // Variável horária buscada pelo projeto
+    public static final String DEFAULT_VARIABLES = "temperature_2m";
+
+    private final long latitudeE4;
+    private final long longitudeE4;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final String variables;
+
+    public WeatherRequestKey(double latitude, double longitude, LocalDate startDate, LocalDate endDate) {
+        this(latitude, longitude, startDate, endDate, DEFAULT_VARIABLES);
+    }
+
+    public WeatherRequestKey(double latitude, double longitude, LocalDate startDate, LocalDate endDate, String variables) {
+        this.latitudeE4 = Math.round(latitude * 10_000);
+        this.longitudeE4 = Math.round(longitude * 10_000);
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.variables = variables;
+    }
+
+    public double getLatitude() { return latitudeE4 / 10_000.0; }
+    public double getLongitude() { return longitudeE4 / 10_000.0; }
+    public LocalDate getStartDate() { return startDate; }
+    public LocalDate getEndDate() { return endDate; }
+    public String getVariables() { return variables; }
+
+    /**
+     * @return Um nome estável e seguro para uso como nome de arquivo.
+     */
+    public String toFileName() {
+        return String.format(Locale.ROOT, "%.4f_%.4f_%s_%s_%s",
+                getLatitude(), getLongitude(), startDate, endDate, variables.replaceAll("[^A-Za-z0-9_]", "-"));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof WeatherRequestKey)) return false;
+        WeatherRequestKey other = (WeatherRequestKey) o;
+        return latitudeE4 == other.latitudeE4
+                && longitudeE4 == other.longitudeE4
+                && startDate.equals(other.startDate)
+                && endDate.equals(other.endDate)
+                && variables.equals(other.variables);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(latitudeE4, longitudeE4, startDate, endDate, variables);
+    }
+
+    @Override
+    public String toString() {
+        return toFileName();
+    }
+}
@@ -0,0 +1,97 @@
+package com.avaliacao;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Agregação diária: o processador original (com e sem boxing), o VectorizedDataProcessor
+ * e os núcleos de AggregationKernels isolados, escrevendo em arrays reaproveitados.
+ * Os forks carregam a Vector API; kernelDailyStatsScalar mede o laço escalar para comparação.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 2, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AggregationBenchmark {
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        public final WeatherDataProcessor processor = new WeatherDataProcessor();
+        public final VectorizedDataProcessor vectorized = new VectorizedDataProcessor();
+        public double[] min;
+        public double[] max;
+        public double[] mean;
+        public int[] count;
+        public boolean hasNulls;
+
+        @Setup
+        public void allocate(FixtureState fixture) {
+            int days = AggregationKernels.daysFor(fixture.primitive.size());
+            min = new double[days];
+            max = new double[days];
+            mean = new double[days];
+            count = new int[days];
+            hasNulls = fixture.primitive.nonNullCount() < fixture.primitive.size();
+            // Médias diárias reais para o benchmark de graus-dia
+            AggregationKernels.dailyStats(fixture.primitive.values(), fixture.primitive.size(), hasNulls, min, max, mean, count);
+        }
+    }
+
+    @Benchmark
+    public Map<LocalDate, WeatherDataProcessor.DailyStats> processList(FixtureState fixture, ThreadState state) {
+        return state.processor.processDailyTemperatures(fixture.boxed, fixture.startDate);
+    }
+
+    @Benchmark
+    public Map<LocalDate, WeatherDataProcessor.DailyStats> processSeries(FixtureState fixture, ThreadState state) {
+        return state.processor.processDailyTemperatures(fixture.primitive, fixture.startDate);
+    }
+
+    @Benchmark
+    public Map<LocalDate, WeatherDataProcessor.DailyStats> vectorizedList(FixtureState fixture, ThreadState state) {
+        return state.vectorized.processDailyTemperatures(fixture.boxed, fixture.startDate);
+    }
+
+    @Benchmark
+    public Map<LocalDate, WeatherDataProcessor.DailyStats> vectorizedSeries(FixtureState fixture, ThreadState state) {
+        return state.vectorized.processDailyTemperatures(fixture.primitive, fixture.startDate);
+    }
+
+    @Benchmark
+    public VectorizedDataProcessor.DailyAggregates vectorizedAggregate(FixtureState fixture, ThreadState state) {
+        return state.vectorized.aggregate(fixture.primitive, fixture.startDate);
+    }
+
+    @Benchmark
+    public void kernelDailyStats(FixtureState fixture, ThreadState state, Blackhole blackhole) {
+        TemperatureSeries series = fixture.primitive;
+        AggregationKernels.dailyStats(series.values(), series.size(), state.hasNulls, state.min, state.max, state.mean, state.count);
+        blackhole.consume(state.mean);
+    }
+
+    @Benchmark
+    public void kernelDailyStatsScalar(FixtureState fixture, ThreadState state, Blackhole blackhole) {
+        TemperatureSeries series = fixture.primitive;
+        AggregationKernels.scalarDailyStats(series.values(), series.size(), state.hasNulls, 0, state.min, state.max, state.mean, state.count);
+        blackhole.consume(state.mean);
+    }
+
+    @Benchmark
+    public double kernelDegreeDays(FixtureState fixture, ThreadState state) {
+        return AggregationKernels.heatingDegreeDays(state.mean, state.mean.length, 18.0);
+    }
+}
@@ -0,0 +1,42 @@
+package com.avaliacao;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ponto de entrada do benchmarks.jar.
+ * Sem argumentos, executa todos os benchmarks com 1, 2, 4 e N threads (N = núcleos), com o
+ * profiler de GC (bytes alocados por operação e coletas), e grava os resultados de cada
+ * quantidade de threads em jmh-results-Nt.json. Forks, aquecimento e iterações vêm das
+ * anotações de cada classe.
+ * Com argumentos, repassa-os à linha de comando padrão do JMH (ex.: -t 8 -prof gc Parsing).
+ * Respostas gravadas podem ser usadas com -Dfixtures.dir=diretório, repassado aos forks.
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        int[] threadCounts = cores > 4 ? new int[]{1, 2, 4, cores} : new int[]{1, 2, 4};
+        String fixtureDirectory = System.getProperty("fixtures.dir");
+
+        for (int threads : threadCounts) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include("com\\.avaliacao\\..*Benchmark\\.")
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .result("jmh-results-" + threads + "t.json")
+                    .resultFormat(ResultFormatType.JSON);
+            if (fixtureDirectory != null) {
+                options.jvmArgsAppend("-Dfixtures.dir=" + fixtureDirectory);
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.avaliacao;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Resposta da Open-Meteo de um mês, um ano ou dez anos, compartilhada pelas threads do benchmark.
+ * Usa as respostas gravadas do diretório -Dfixtures.dir (month.json, year.json, decade.json)
+ * ou, na falta delas, as geradas pelo WeatherFixtures.
+ */
+@State(Scope.Benchmark)
+public class FixtureState {
+
+    @Param({"MONTH", "YEAR", "DECADE"})
+    public WeatherFixtures.Size size;
+
+    public String json;
+    public byte[] jsonBytes;
+    public LocalDate startDate;
+    // A mesma resposta já convertida pelos dois parsers, para os benchmarks de agregação
+    public List<Double> boxed;
+    public TemperatureSeries primitive;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        String fixtureDirectory = System.getProperty("fixtures.dir");
+        json = WeatherFixtures.load(fixtureDirectory == null ? null : Path.of(fixtureDirectory), size);
+        jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+        startDate = size.getStartDate();
+        boxed = new WeatherApiClient().parseTemperatures(json);
+        primitive = new TemperatureSeries();
+        new StreamingTemperatureParser().parse(ByteBuffer.wrap(jsonBytes), primitive);
+    }
+}
@@ -0,0 +1,47 @@
+package com.avaliacao;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing das respostas: org.json (lista de Double) e o parser em streaming (série primitiva reaproveitada).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ParsingBenchmark {
+
+    /**
+     * Cliente e série de cada thread, como nos experimentos (uma série reaproveitada por thread).
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+        public final WeatherApiClient client = new WeatherApiClient();
+        public final TemperatureSeries series = new TemperatureSeries();
+    }
+
+    @Benchmark
+    public List<Double> orgJson(FixtureState fixture, ThreadState state) {
+        return state.client.parseTemperatures(fixture.json);
+    }
+
+    @Benchmark
+    public TemperatureSeries streaming(FixtureState fixture, ThreadState state) throws IOException {
+        state.client.parseTemperatures(ByteBuffer.wrap(fixture.jsonBytes), state.series);
+        return state.series;
+    }
+}
@@ -0,0 +1,75 @@
+package com.avaliacao;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Escrita concorrente no ResultStore: todas as threads escrevem no mesmo store, cada uma
+ * alternando entre as suas próprias 27 capitais. Como nos experimentos, uma localidade nunca
+ * é escrita por duas threads ao mesmo tempo, condição exigida pelo ColumnarResultStore.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ResultStoreBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class StoreState {
+        @Param({"map", "columnar"})
+        public String store;
+
+        public ResultStore resultStore;
+        public Map<LocalDate, WeatherDataProcessor.DailyStats> stats;
+        public final AtomicInteger threads = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void create(FixtureState fixture) {
+            resultStore = "columnar".equals(store)
+                    ? new ColumnarResultStore(fixture.size.getStartDate(), fixture.size.getEndDate())
+                    : new ResultStore();
+            stats = new WeatherDataProcessor().processDailyTemperatures(fixture.primitive, fixture.startDate);
+        }
+    }
+
+    /**
+     * As localidades de uma thread: as 27 capitais, com o número da thread no nome.
+     */
+    @State(Scope.Thread)
+    public static class ThreadNames {
+        public String[] names;
+        public int next;
+
+        @Setup(Level.Trial)
+        public void assign(StoreState state) {
+            int thread = state.threads.getAndIncrement();
+            names = CapitalsData.getCapitals().stream()
+                    .map(capital -> capital.getName() + " #" + thread)
+                    .toArray(String[]::new);
+        }
+    }
+
+    @Benchmark
+    public ResultStore addCapitalData(StoreState state, ThreadNames thread) {
+        String name = thread.names[thread.next];
+        thread.next = (thread.next + 1) % thread.names.length;
+        state.resultStore.addCapitalData(name, state.stats);
+        return state.resultStore;
+    }
+}
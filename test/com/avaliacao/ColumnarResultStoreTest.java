@@ -0,0 +1,179 @@
+package com.avaliacao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Snapshot binário do ColumnarResultStore: gravação e mapeamento de volta, arquivos truncados
+ * ou corrompidos e colunas além de 2 GB.
+ */
+class ColumnarResultStoreTest {
+
+    private static final LocalDate FIRST = LocalDate.of(2024, 1, 1);
+    private static final LocalDate LAST = LocalDate.of(2024, 1, 10);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void snapshotMapeadoTemOsMesmosValores() throws IOException {
+        ColumnarResultStore store = sampleStore();
+        Path file = directory.resolve("store.crs");
+        store.saveSnapshot(file);
+
+        ColumnarResultStore mapped = ColumnarResultStore.mapSnapshot(file);
+        assertEquals(store.getFirstDay(), mapped.getFirstDay());
+        assertEquals(store.getLastDay(), mapped.getLastDay());
+        assertEquals(store.getLocationCount(), mapped.getLocationCount());
+        for (int location = 0; location < store.getLocationCount(); location++) {
+            String name = store.getLocationName(location);
+            int ordinal = mapped.ordinalOf(name);
+            assertTrue(ordinal >= 0, name);
+            for (int day = 0; day < store.getDays(); day++) {
+                assertEquals(store.getMin(location, day), mapped.getMin(ordinal, day));
+                assertEquals(store.getMax(location, day), mapped.getMax(ordinal, day));
+                assertEquals(store.getMean(location, day), mapped.getMean(ordinal, day));
+            }
+        }
+        Map<String, Map<LocalDate, WeatherDataProcessor.DailyStats>> expected = store.getAllCapitalsData();
+        Map<String, Map<LocalDate, WeatherDataProcessor.DailyStats>> actual = mapped.getAllCapitalsData();
+        assertEquals(expected.keySet(), actual.keySet());
+        for (String name : expected.keySet()) {
+            assertEquals(expected.get(name).keySet(), actual.get(name).keySet(), name);
+        }
+        assertThrows(IllegalStateException.class, () -> mapped.put(0, 0, 1, 2, 3));
+    }
+
+    @Test
+    void escritaVaziaNaoRegistraLocalidade() throws IOException {
+        ColumnarResultStore store = new ColumnarResultStore(FIRST, LAST);
+        store.addCapitalData("Vazia", Collections.emptyMap());
+        store.mergeCapitalData("Vazia", Collections.emptyMap());
+        assertEquals(-1, store.ordinalOf("Vazia"));
+        assertEquals(0, store.getLocationCount());
+
+        // Substituir por um mapa vazio apaga os dias; a localidade some do snapshot e da cópia
+        store.addCapitalData("Apagada", days(FIRST, 3));
+        store.addCapitalData("Mantida", days(FIRST, 2));
+        store.addCapitalData("Apagada", Collections.emptyMap());
+        assertFalse(store.hasData(store.ordinalOf("Apagada")));
+        assertNull(store.getDailyStats("Apagada", FIRST));
+
+        Path file = directory.resolve("vazia.crs");
+        store.saveSnapshot(file);
+        ColumnarResultStore mapped = ColumnarResultStore.mapSnapshot(file);
+        assertEquals(1, mapped.getLocationCount());
+        assertEquals(-1, mapped.ordinalOf("Apagada"));
+
+        ColumnarResultStore copy = new ColumnarResultStore(FIRST, LAST);
+        copy.copyFrom(store);
+        assertEquals(-1, copy.ordinalOf("Apagada"));
+        assertTrue(copy.hasData(copy.ordinalOf("Mantida")));
+    }
+
+    @Test
+    void snapshotTruncadoGeraIOException() throws IOException {
+        Path file = directory.resolve("store.crs");
+        sampleStore().saveSnapshot(file);
+        byte[] content = Files.readAllBytes(file);
+        // No cabeçalho, na tabela de nomes e nas colunas
+        for (int length : new int[] {0, 10, 30, 40, content.length - 8}) {
+            Path truncated = directory.resolve("truncado-" + length + ".crs");
+            Files.write(truncated, Arrays.copyOf(content, length));
+            assertThrows(IOException.class, () -> ColumnarResultStore.mapSnapshot(truncated), "tamanho " + length);
+        }
+    }
+
+    @Test
+    void tamanhosCorrompidosGeramIOException() throws IOException {
+        Path file = directory.resolve("store.crs");
+        sampleStore().saveSnapshot(file);
+        byte[] content = Files.readAllBytes(file);
+
+        // Tamanho do primeiro nome (logo após o cabeçalho de 28 bytes): negativo e além do arquivo
+        for (int length : new int[] {-1, Integer.MAX_VALUE}) {
+            Path corrupted = directory.resolve("nome" + length + ".crs");
+            Files.write(corrupted, withInt(content, 28, length));
+            assertThrows(IOException.class, () -> ColumnarResultStore.mapSnapshot(corrupted), "nome com " + length + " bytes");
+        }
+        // Dias (posição 20) e localidades (posição 24)
+        for (int[] field : new int[][] {{20, 0}, {20, -5}, {24, -1}, {24, Integer.MAX_VALUE}}) {
+            Path corrupted = directory.resolve("campo" + field[0] + "_" + field[1] + ".crs");
+            Files.write(corrupted, withInt(content, field[0], field[1]));
+            assertThrows(IOException.class, () -> ColumnarResultStore.mapSnapshot(corrupted), "campo " + field[0] + " = " + field[1]);
+        }
+        Path wrongMagic = directory.resolve("marca.crs");
+        Files.write(wrongMagic, withInt(content, 0, 0));
+        assertThrows(IOException.class, () -> ColumnarResultStore.mapSnapshot(wrongMagic));
+    }
+
+    @Test
+    void colunasAlemDe2GB() throws IOException {
+        // Uma localidade com 300 milhões de dias: cada coluna tem 2,4 GB e o arquivo, 7,2 GB (esparso)
+        int days = 300_000_000;
+        byte[] name = "Longa".getBytes(StandardCharsets.UTF_8);
+        long columnsStart = (28 + Integer.BYTES + name.length + 7) & ~7L;
+        long columnBytes = (long) days * Double.BYTES;
+        Path file = directory.resolve("grande.crs");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(28 + Integer.BYTES + name.length);
+            header.putInt(0x43525331).putInt(1).putInt(0).putLong(FIRST.toEpochDay()).putInt(days).putInt(1);
+            header.putInt(name.length).put(name).flip();
+            channel.write(header, 0);
+            // Último dia de cada coluna, além do primeiro bloco mapeado e de 2 GB no arquivo
+            for (int column = 0; column < 3; column++) {
+                channel.write(ByteBuffer.allocate(Double.BYTES).putDouble(0, column + 0.5),
+                        columnsStart + column * columnBytes + columnBytes - Double.BYTES);
+            }
+        }
+
+        ColumnarResultStore mapped = ColumnarResultStore.mapSnapshot(file);
+        assertEquals(days, mapped.getDays());
+        assertEquals(0.5, mapped.getMin(0, days - 1));
+        assertEquals(1.5, mapped.getMax(0, days - 1));
+        assertEquals(2.5, mapped.getMean(0, days - 1));
+        assertEquals(0.0, mapped.getMean(0, days / 2));
+    }
+
+    private static ColumnarResultStore sampleStore() {
+        ColumnarResultStore store = new ColumnarResultStore(FIRST, LAST);
+        store.addCapitalData("São Paulo", days(FIRST, 10));
+        store.addCapitalData("Bom Jesus (-9.07,-44.36)", days(FIRST.plusDays(4), 3));
+        store.mergeCapitalData("Bom Jesus (-7.26,-35.58)", days(LAST, 1));
+        return store;
+    }
+
+    private static Map<LocalDate, WeatherDataProcessor.DailyStats> days(LocalDate first, int count) {
+        Map<LocalDate, WeatherDataProcessor.DailyStats> data = new TreeMap<>();
+        for (int day = 0; day < count; day++) {
+            double mean = 20 + day * 0.25;
+            data.put(first.plusDays(day), new WeatherDataProcessor.DailyStats(mean - 5, mean + 5, mean));
+        }
+        return data;
+    }
+
+    private static byte[] withInt(byte[] content, int position, int value) {
+        byte[] copy = content.clone();
+        ByteBuffer.wrap(copy).putInt(position, value);
+        return copy;
+    }
+}